@@ -1,7 +1,10 @@
 #!/usr/bin/env python
 import os
 import shutil
+import socket
+import subprocess
 import sys
+import time
 import multiprocessing
 
 # This script should be executed from the root directory of Doop.
@@ -32,6 +35,8 @@ ZIPPER_CP = ':'.join([
     os.path.join(ZIPPER_HOME, 'lib', 'sootclasses-2.5.0.jar'),
 ])
 ZIPPER_MAIN = 'ptatoolkit.zipper.Main'
+ZIPPER_EXPORT = 'ptatoolkit.zipper.Export'
+ZIPPER_DAEMON = 'ptatoolkit.zipper.Daemon'
 ZIPPER_PTA = 'ptatoolkit.zipper.doop.DoopPointsToAnalysis'
 ZIPPER_CACHE = 'cache/zipper'
 ZIPPER_OUT = 'results'
@@ -39,6 +44,16 @@ ZIPPER_OUT = 'results'
 ZIPPER_THREAD = multiprocessing.cpu_count() # use multithreading to accelerate Zipper
 ZIPPER_MEMORY = '48g'
 
+# Run Zipper in a resident daemon (started on demand), which keeps the
+# loaded Doop results across runs, e.g., when sweeping -e thresholds.
+# The daemon can also be enabled by option -daemon.
+# The daemon writes its port and the token of its session into the
+# session file, which only the owner can read.
+ZIPPER_USE_DAEMON = False
+ZIPPER_DAEMON_SESSION = os.path.join(ZIPPER_CACHE, 'zipper-daemon.session')
+ZIPPER_DAEMON_LOG = 'zipper-daemon.log'
+ZIPPER_DAEMON_EXIT = '#zipper-exit '
+
 # ---------------------------------------------------------
 
 RESET = '\033[0m'
@@ -52,143 +67,19 @@ def runPreAnalysis(initArgs):
     # print cmd
     os.system(cmd)
 
-QUERY={
-    # points-to set
-    'VPT':"Stats:Simple:InsensVarPointsTo",
-
-    # object
-    'OBJ':"_(obj)<-Stats:Simple:InsensVarPointsTo(obj,_).",
-    'OBJ_TYPE':"_[obj]=type<-" +
-                "HeapAllocation:Type[obj]=type," +
-                "Stats:Simple:InsensVarPointsTo(obj,_).",
-    'SPECIAL_OBJECTS':"HeapAllocation:Special",
-    'MERGE_OBJECTS':"HeapAllocation:Merge",
-    'STRING_CONSTANTS':"StringConstant",
-    'REF_STRING_CONSTANTS':"ReflectionStringConstant",
-    
-    'OBJECT_IN':"_(obj,inmethod)<-" +
-            "AssignHeapAllocation(obj,_,inmethod)," +
-            "Reachable(inmethod).",
-    'OBJECT_ASSIGN':"_(obj,var)<-" +
-            "AssignHeapAllocation(obj,var,inmethod)," +
-            "Reachable(inmethod).",
-    'REF_OBJECT':"_(obj,callsite)<-" +
-                "ReflectiveHeapAllocation[callsite,_]=obj.",
-
-    'STRING_CONSTANT':"<<string-constant>>",
-
-    # flow graph
-    'LOCAL_ASSIGN':"_(to,from)<-OptAssignLocal(to,from);" +
-            "Assign(_,_,to,_,from).",
-    'INTERPROCEDURAL_ASSIGN':"_(to,from)<-" +
-            "OptInterproceduralAssign(_,to,_,from).",
-    'INSTANCE_LOAD':"_(to,base,field)<-" +
-            "LoadHeapInstanceField(_,to,field,_,base).",
-    'ARRAY_LOAD':"_(to,array)<-LoadHeapArrayIndex(_,to,_,array).",
-    'INSTANCE_STORE':"_(base,field,from)<-" +
-            "StoreHeapInstanceField(field,_,base,_,from).",
-    'ARRAY_STORE':"_(array,from)<-StoreHeapArrayIndex(_,array,_,from).",
-    'INSTANCE_LOAD_FROM_TO':"_(from,to)<-" +
-            "ReachableLoadInstanceFieldBase(from)," +
-            "OptLoadInstanceField(to,_,from).",
-    'ARRAY_LOAD_FROM_TO':"_(from,to)<-" +
-            "ReachableLoadArrayIndexBase(from)," +
-            "OptLoadArrayIndex(to,from).",
-    'CALL_RETURN_TO':"_(recv,to)<-" +
-            "VirtualMethodInvocation:Base[invo]=recv," +
-            "VirtualMethodInvocation:In(invo,inmethod)," +
-            "AssignReturnValue[invo]=to," +
-            "Reachable(inmethod).",
-    # call graph edges
-    'REGULARCALL':"Stats:Simple:InsensCallGraphEdge",
-    'REFCALL':"_(from,to)<-ReflectiveCallGraphEdge(_,from,_,to).",
-    'NATIVECALL':"_(from,to)<-NativeCallGraphEdge(_,from,_,to).",
-    'CALL_EDGE':"Stats:Simple:WholeInsensCallGraphEdge",
-    'CALLER_CALLEE':"_(caller,callee)<-" +
-            "(Stats:Simple:InsensCallGraphEdge(callsite,callee);" +
-            "ReflectiveCallGraphEdge(_,callsite,_,callee))," +
-            "(SpecialMethodInvocation:In(callsite,caller);" +
-            "VirtualMethodInvocation:In(callsite,caller);" +
-            "StaticMethodInvocation:In(callsite,caller)).",
-    'MAINMETHOD':"MainMethodDeclaration",
-    'REACHABLE':"Reachable",
-    'IMPLICITREACHABLE':"ImplicitReachable",
-
-    # instance field store
-    'INSTANCE_STORE_IN':"_(obj,inmethod)<-" +
-            "ReachableStoreInstanceFieldBase(base)," +
-            "VarPointsTo(_,obj,_,base)," +
-            "Var:DeclaringMethod(base,inmethod).",
-    'ARRAY_STORE_IN':"_(array,inmethod)<-" +
-            "ReachableStoreArrayIndexBase(base)," +
-            "VarPointsTo(_,array,_,base)" +
-            "Var:DeclaringMethod(base,inmethod).",
-
-    # call site
-    'INST_CALL':"_(callsite,callee)<-" +
-            "Stats:Simple:InsensCallGraphEdge(callsite,callee)," +
-            "(VirtualMethodInvocation(callsite,_,_);" +
-            "SpecialMethodInvocation:Base[callsite]=_).",
-    'INST_CALL_RECV':"_(callsite,recv)<-" +
-            "Stats:Simple:InsensCallGraphEdge(callsite,_)," +
-            "(VirtualMethodInvocation:Base[callsite]=recv;" +
-            "SpecialMethodInvocation:Base[callsite]=recv).",
-    'INST_CALL_ARGS':"_(callsite,arg)<-" +
-            "Stats:Simple:InsensCallGraphEdge(callsite,_)," +
-            "(VirtualMethodInvocation(callsite,_,_);" +
-            "SpecialMethodInvocation:Base[callsite]=_)," +
-            "ActualParam[_,callsite]=arg.",
-    'CALLSITEIN':"MethodInvocation:In",
-
-    # method
-    'THIS_VAR':"_(mtd,this)<-Reachable(mtd),ThisVar[mtd]=this.",
-    'PARAMS':"_(mtd,param)<-Reachable(mtd),FormalParam[_,mtd]=param.",
-    'RET_VARS':"_(mtd,ret)<-Reachable(mtd),ReturnVar(ret,mtd).",
-    # only instance methods have this variables
-    'INST_METHODS':"_(mtd)<-Reachable(mtd),ThisVar[mtd]=_.",
-    'OBJFINAL':"ObjectSupportsFinalize",
-    'VAR_IN':"_(var,inmethod)<-Var:DeclaringMethod(var,inmethod)," +
-            "Reachable(inmethod).",
-    'METHOD_MODIFIER':"_(mtd,mod)<-MethodModifier(mod,mtd).",
-
-    # type
-    'APPLICATION_CLASS':"ApplicationClass",
-    'DIRECT_SUPER_TYPE':"DirectSuperclass",
-    'DECLARING_CLASS_ALLOCATION':"DeclaringClassAllocation",
-}
-
-DB_DIR = None
-DUMP_DIR = None
-def dumpQuery(query):
-    output = os.path.join(DUMP_DIR, '%s.%s' % (APP, query))
-    if os.path.exists(output):
-        os.remove(output) # remove old file
-    cmd = "bloxbatch -db %s -query '%s' > %s" % (DB_DIR, QUERY[query], output)
+def exportDoopResults(app, db_dir, cache_dir):
+    # Evaluate all queries required by Zipper in one batch, and write
+    # their results into Zipper's fact cache directly.
+    print 'Exporting doop analysis results ...'
+    cmd = 'java -Xmx%s ' % ZIPPER_MEMORY
+    cmd += ' -cp %s ' % ZIPPER_CP
+    cmd += ZIPPER_EXPORT
+    cmd += ' -app %s ' % app
+    cmd += ' -db %s ' % db_dir
+    cmd += ' -cache %s ' % cache_dir
     # print cmd
     os.system(cmd)
 
-def dumpRequiredDoopResults(app, db_dir, dump_dir):
-    print 'Dumping doop analysis results ...'
-    REQUIRED_QURIES = [
-        'ARRAY_LOAD', 'ARRAY_STORE',
-        'CALL_EDGE', 'CALL_RETURN_TO', 'CALLSITEIN', 'DIRECT_SUPER_TYPE',
-        'INST_CALL_RECV', 'INST_METHODS', 'INSTANCE_LOAD', 'INSTANCE_STORE', 
-        'INTERPROCEDURAL_ASSIGN', 'LOCAL_ASSIGN', 'METHOD_MODIFIER',
-        'OBJ_TYPE', 'OBJECT_ASSIGN', 'OBJECT_IN',
-        'PARAMS', 'RET_VARS', 'SPECIAL_OBJECTS',
-        'THIS_VAR', 'VAR_IN', 'VPT',
-    ]
-    if not os.path.isdir(dump_dir):
-        os.makedirs(dump_dir)
-    global APP, DB_DIR, DUMP_DIR
-    APP, DB_DIR, DUMP_DIR = app, db_dir, dump_dir
-    n = min(len(REQUIRED_QURIES), multiprocessing.cpu_count())
-    pool = multiprocessing.Pool(n)
-    # dump queries with multiprocesses
-    pool.map(dumpQuery, REQUIRED_QURIES)
-    pool.close()
-    pool.join()
-
 def runZipper(app, cache_dir, out_dir, express):
     suffix = ''
     if express:
@@ -198,21 +89,70 @@ def runZipper(app, cache_dir, out_dir, express):
     if os.path.exists(zipper_file):
         os.remove(zipper_file) # remove old file
 
-    cmd = 'java -Xmx%s ' % ZIPPER_MEMORY
-    cmd += ' -cp %s ' % ZIPPER_CP
-    cmd += ZIPPER_MAIN
-    cmd += ' -pta %s ' % ZIPPER_PTA
-    cmd += ' -app %s ' % app
-    cmd += ' -cache %s ' % cache_dir
-    cmd += ' -out %s ' % out_dir
+    args = ['-pta', ZIPPER_PTA, '-app', app, '-cache', cache_dir,
+            '-out', out_dir]
     if ZIPPER_THREAD > 1:
-        cmd += ' -thread %d ' % ZIPPER_THREAD
+        args += ['-thread', str(ZIPPER_THREAD)]
     if express:
-        cmd += ' -express %f ' % express
-    # print cmd
-    os.system(cmd)
+        args += ['-express', '%f' % express]
+    if ZIPPER_USE_DAEMON:
+        runZipperInDaemon(args)
+    else:
+        cmd = 'java -Xmx%s ' % ZIPPER_MEMORY
+        cmd += ' -cp %s ' % ZIPPER_CP
+        cmd += ZIPPER_MAIN + ' ' + ' '.join(args)
+        # print cmd
+        os.system(cmd)
     return zipper_file
 
+def connectZipperDaemon():
+    # Return the connection to the daemon which has sent the token of
+    # its session, or None if the daemon is not running.
+    try:
+        with open(ZIPPER_DAEMON_SESSION) as f:
+            port, token = f.read().split()
+        sock = socket.create_connection(('127.0.0.1', int(port)))
+    except (IOError, ValueError, socket.error):
+        return None
+    sock.sendall(token + '\n')
+    return sock
+
+def startZipperDaemon():
+    print 'Starting Zipper daemon ...'
+    if os.path.exists(ZIPPER_DAEMON_SESSION):
+        os.remove(ZIPPER_DAEMON_SESSION) # session of a dead daemon
+    log = open(ZIPPER_DAEMON_LOG, 'a')
+    subprocess.Popen(['java', '-Xmx%s' % ZIPPER_MEMORY, '-cp', ZIPPER_CP,
+                      ZIPPER_DAEMON, '-session', ZIPPER_DAEMON_SESSION],
+                     stdout=log, stderr=log)
+    log.close()
+    for _ in range(600): # wait for the daemon to listen
+        sock = connectZipperDaemon()
+        if sock is not None:
+            return sock
+        time.sleep(0.1)
+    raise Exception('Zipper daemon does not start, see ' + ZIPPER_DAEMON_LOG)
+
+def runZipperInDaemon(args):
+    # The paths in args are resolved by the daemon, thus made absolute.
+    args = [os.path.abspath(a) if i > 0 and args[i-1] in ('-cache', '-out')
+            else a for i, a in enumerate(args)]
+    sock = connectZipperDaemon()
+    if sock is None:
+        sock = startZipperDaemon()
+    sock.sendall('\t'.join(args) + '\n')
+    status = 1
+    out = sock.makefile('r')
+    for line in out:
+        if line.startswith(ZIPPER_DAEMON_EXIT):
+            status = int(line[len(ZIPPER_DAEMON_EXIT):])
+            break
+        sys.stdout.write(line)
+    out.close()
+    sock.close()
+    if status != 0:
+        print 'Zipper fails in daemon, exit status: %d' % status
+
 def runMainAnalysis(args, zipper_file):
     args = [DOOP, '--cache', '-zipper', zipper_file] + args
     cmd = ' '.join(args)
@@ -222,11 +162,14 @@ def runMainAnalysis(args, zipper_file):
 
 def run(args):
     def processArgs(args):
+        global ZIPPER_USE_DAEMON
         res = []
         express = None
         i = 0
         while i < len(args):
-            if args[i] == '-e':
+            if args[i] == '-daemon':
+                ZIPPER_USE_DAEMON = True
+            elif args[i] == '-e':
                 if isFloat(args[i+1]):
                     express = float(args[i+1])
                     i += 1
@@ -247,7 +190,7 @@ def run(args):
     args, express = processArgs(args)
     # print args, express
     runPreAnalysis(args)
-    dumpRequiredDoopResults(APP, DATABASE, ZIPPER_CACHE)
+    exportDoopResults(APP, DATABASE, ZIPPER_CACHE)
     zipper_file = runZipper(APP, ZIPPER_CACHE, ZIPPER_OUT, express)
     runMainAnalysis(args, zipper_file)
 
@@ -0,0 +1,278 @@
+package ptatoolkit.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Generates the text dumps of the Doop queries required by Zipper for a
+ * synthetic program, so that the benchmarks run on inputs of realistic
+ * shape (types with inner classes, static access$ methods, allocation
+ * chains, field and array flows, and calls) without a Doop database.
+ *
+ * The program grows linearly with scale, e.g., scale 100 gives about 3600
+ * types, 14000 methods and 14000 objects. The same seed and scale always
+ * give the same dumps.
+ */
+public class SyntheticDoop {
+
+    private static final String[] QUERIES = {
+            "ARRAY_LOAD", "ARRAY_STORE", "CALL_EDGE", "CALL_RETURN_TO",
+            "CALLSITEIN", "DIRECT_SUPER_TYPE", "INST_CALL_RECV",
+            "INST_METHODS", "INSTANCE_LOAD", "INSTANCE_STORE",
+            "INTERPROCEDURAL_ASSIGN", "LOCAL_ASSIGN", "METHOD_MODIFIER",
+            "OBJ_TYPE", "OBJECT_ASSIGN", "OBJECT_IN", "PARAMS", "RET_VARS",
+            "SPECIAL_OBJECTS", "THIS_VAR", "VAR_IN", "VPT",
+    };
+
+    private final Random random;
+    private final Map<String, List<String[]>> relations = new LinkedHashMap<>();
+
+    private SyntheticDoop(long seed) {
+        this.random = new Random(seed);
+        for (String query : QUERIES) {
+            relations.put(query, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Write the dumps of program app into dir, as Doop names them,
+     * i.e., app.QUERY.
+     * @return dir
+     */
+    public static File generate(File dir, String app, int scale, long seed) {
+        SyntheticDoop doop = new SyntheticDoop(seed);
+        doop.build(scale);
+        try {
+            Files.createDirectories(dir.toPath());
+            for (Map.Entry<String, List<String[]>> e : doop.relations.entrySet()) {
+                File file = new File(dir, app + "." + e.getKey());
+                try (BufferedWriter writer = Files.newBufferedWriter(
+                        file.toPath(), StandardCharsets.UTF_8)) {
+                    for (String[] tuple : e.getValue()) {
+                        writer.write("  ");
+                        writer.write(String.join(", ", tuple));
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return dir;
+    }
+
+    /**
+     * Delete the dumps in dir, together with the files cached from them,
+     * and dir itself.
+     */
+    public static void delete(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static final class MethodInfo {
+        final String sig;
+        final String type;
+        final boolean isStatic;
+        String thisVar;
+        final List<String> params = new ArrayList<>();
+        String ret;
+        final List<String> locals = new ArrayList<>();
+        final List<String> vars = new ArrayList<>();
+
+        MethodInfo(String sig, String type, boolean isStatic) {
+            this.sig = sig;
+            this.type = type;
+            this.isStatic = isStatic;
+        }
+    }
+
+    private void build(int scale) {
+        int nrTypes = 30 * scale;
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < nrTypes; ++i) {
+            types.add("pkg.T" + i);
+        }
+        for (int i = 0; i < nrTypes; i += 5) {
+            types.add("pkg.T" + i + "$Inner");
+        }
+        types.add("pkg.A[]");
+        for (String type : types) {
+            String sup = random.nextDouble() < 0.3 ?
+                    types.get(random.nextInt(nrTypes)) : "java.lang.Object";
+            if (!sup.equals(type)) {
+                add("DIRECT_SUPER_TYPE", type, sup);
+            }
+        }
+
+        List<MethodInfo> methods = new ArrayList<>();
+        for (String type : types) {
+            for (int j = 0, n = between(2, 6); j < n; ++j) {
+                boolean isStatic = random.nextDouble() < 0.25;
+                String name = isStatic && random.nextDouble() < 0.3 ?
+                        "access$" + j : "m" + j;
+                String sig = "<" + type + ": java.lang.Object " + name
+                        + "(java.lang.Object)>";
+                MethodInfo m = new MethodInfo(sig, type, isStatic);
+                methods.add(m);
+                if (!isStatic) {
+                    m.thisVar = sig + "/@this";
+                    add("THIS_VAR", sig, m.thisVar);
+                    add("INST_METHODS", sig);
+                    m.vars.add(m.thisVar);
+                }
+                for (int k = 0, np = between(0, 2); k < np; ++k) {
+                    String param = sig + "/@param" + k;
+                    m.params.add(param);
+                    add("PARAMS", sig, param);
+                }
+                m.vars.addAll(m.params);
+                m.ret = sig + "/@ret";
+                add("RET_VARS", sig, m.ret);
+                m.vars.add(m.ret);
+                for (int k = 0, nl = between(2, 6); k < nl; ++k) {
+                    m.locals.add(sig + "/l" + k);
+                }
+                m.vars.addAll(m.locals);
+                for (String var : m.vars) {
+                    add("VAR_IN", var, sig);
+                }
+                if (random.nextDouble() < 0.2) {
+                    add("METHOD_MODIFIER", sig, "private");
+                }
+                add("METHOD_MODIFIER", sig, "public");
+                for (int k = 0, na = between(1, 4); k < na; ++k) {
+                    String to = choice(m.vars), from = choice(m.vars);
+                    if (!to.equals(from)) {
+                        add("LOCAL_ASSIGN", to, from);
+                    }
+                }
+                List<String> sources = new ArrayList<>(m.locals);
+                sources.addAll(m.params);
+                add("LOCAL_ASSIGN", m.ret, choice(sources));
+            }
+        }
+
+        List<String> objs = new ArrayList<>();
+        Map<String, String> objTypes = new HashMap<>();
+        TreeSet<String> vpt = new TreeSet<>();
+        for (MethodInfo m : methods) {
+            for (int k = 0, no = between(0, 2); k < no; ++k) {
+                String type = choice(types);
+                String obj = m.sig + "/new " + type + "/" + k;
+                objs.add(obj);
+                objTypes.put(obj, type);
+                add("OBJ_TYPE", obj, type);
+                add("OBJECT_IN", obj, m.sig);
+                String var = choice(m.locals);
+                add("OBJECT_ASSIGN", obj, var);
+                vpt.add(obj + "\t" + var);
+            }
+        }
+        objs.add("<class pkg.T0>");
+        add("OBJ_TYPE", "<class pkg.T0>", "java.lang.Class");
+        objs.add("<<special>>");
+        objTypes.put("<<special>>", "java.lang.Object");
+        add("OBJ_TYPE", "<<special>>", "java.lang.Object");
+        add("SPECIAL_OBJECTS", "<<special>>");
+        add("OBJECT_IN", "<<special>>", methods.get(0).sig);
+
+        List<String> allVars = new ArrayList<>();
+        methods.forEach(m -> allVars.addAll(m.vars));
+        for (String var : allVars) {
+            for (int k = 0, n = between(0, 3); k < n; ++k) {
+                vpt.add(choice(objs) + "\t" + var);
+            }
+        }
+        // this variables point to the objects of their declaring types
+        Map<String, List<String>> objsOfType = new HashMap<>();
+        objTypes.forEach((obj, type) ->
+                objsOfType.computeIfAbsent(type, t -> new ArrayList<>()).add(obj));
+        objsOfType.values().forEach(Collections::sort);
+        for (MethodInfo m : methods) {
+            if (!m.isStatic) {
+                List<String> candidates = objsOfType.getOrDefault(
+                        m.type, Collections.emptyList());
+                for (String obj : candidates.subList(0, Math.min(3, candidates.size()))) {
+                    vpt.add(obj + "\t" + m.thisVar);
+                }
+            }
+        }
+        vpt.forEach(fact -> relations.get("VPT").add(fact.split("\t")));
+
+        int nrCallSites = 0;
+        for (MethodInfo m : methods) {
+            for (int k = 0, n = between(0, 3); k < n; ++k) {
+                MethodInfo callee = choice(methods);
+                String callSite = m.sig + "/" + callee.sig + "/" + nrCallSites++;
+                add("CALLSITEIN", callSite, m.sig);
+                add("CALL_EDGE", callSite, callee.sig);
+                if (!callee.isStatic) {
+                    String recv = choice(m.vars);
+                    add("INST_CALL_RECV", callSite, recv);
+                    String to = choice(m.locals);
+                    add("CALL_RETURN_TO", recv, to);
+                    add("INTERPROCEDURAL_ASSIGN", to, callee.ret);
+                }
+                for (String param : callee.params) {
+                    add("INTERPROCEDURAL_ASSIGN", param, choice(m.vars));
+                }
+            }
+        }
+        // every method is called somewhere
+        for (MethodInfo m : methods) {
+            String caller = choice(methods).sig;
+            String callSite = caller + "/" + m.sig + "/r" + nrCallSites++;
+            add("CALLSITEIN", callSite, caller);
+            add("CALL_EDGE", callSite, m.sig);
+        }
+
+        List<String> fields = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            for (int j = 0; j < 2; ++j) {
+                fields.add("<pkg.T" + i + ": java.lang.Object f" + j + ">");
+            }
+        }
+        for (String var : allVars) {
+            double r = random.nextDouble();
+            if (r < 0.15) {
+                add("INSTANCE_STORE", choice(objs), choice(fields), var);
+            } else if (r < 0.3) {
+                add("INSTANCE_LOAD", var, choice(objs), choice(fields));
+            } else if (r < 0.33) {
+                add("ARRAY_STORE", choice(objs), var);
+            } else if (r < 0.36) {
+                add("ARRAY_LOAD", var, choice(objs));
+            }
+        }
+    }
+
+    private void add(String query, String... tuple) {
+        relations.get(query).add(tuple);
+    }
+
+    private int between(int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    private <T> T choice(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+}
@@ -0,0 +1,114 @@
+package ptatoolkit.doop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ptatoolkit.bench.SyntheticDoop;
+import ptatoolkit.doop.factory.TypeFactory;
+import ptatoolkit.pta.basic.Type;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of reading the Doop dumps: parsing the VPT dump line by line
+ * by {@link QueryResultItr} (and by {@link DumpTokenizer} for comparison),
+ * and getting the elements by their names from {@link TypeFactory}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoopParsingBenchmark {
+
+    private static final String APP = "bench";
+
+    @Param({"20", "100"})
+    public int scale;
+
+    private File dumpDir;
+    private File vptFile;
+    // the type names of the objects in the OBJ_TYPE dump, with repetition
+    private String[] typeNames;
+    private TypeFactory warmTypeFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dumpDir = Files.createTempDirectory("zipper-bench").toFile();
+        SyntheticDoop.generate(dumpDir, APP, scale, 2018);
+        vptFile = new File(dumpDir, APP + "." + Query.VPT.name());
+        List<String> names = new ArrayList<>();
+        try (QueryResultItr itr = new QueryResultItr(Query.OBJ_TYPE,
+                new File(dumpDir, APP + "." + Query.OBJ_TYPE.name()))) {
+            itr.forEachRemaining(line -> names.add(line.get(1)));
+        }
+        typeNames = names.toArray(new String[0]);
+        warmTypeFactory = new TypeFactory(new SymbolTable());
+        for (String name : typeNames) {
+            warmTypeFactory.get(name);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticDoop.delete(dumpDir);
+    }
+
+    @Benchmark
+    public void parseVPTByQueryResultItr(Blackhole bh) {
+        try (QueryResultItr itr = new QueryResultItr(Query.VPT, vptFile)) {
+            while (itr.hasNext()) {
+                bh.consume(itr.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseVPTByDumpTokenizer(Blackhole bh) {
+        try (DumpTokenizer tokenizer = new DumpTokenizer(
+                Query.VPT, vptFile, new SymbolTable())) {
+            while (tokenizer.hasNext()) {
+                bh.consume(tokenizer.next());
+            }
+        }
+    }
+
+    /**
+     * Creates the types of all objects, as when the dumps are first read.
+     */
+    @Benchmark
+    public void createTypes(Blackhole bh) {
+        TypeFactory typeFactory = new TypeFactory(new SymbolTable());
+        for (String name : typeNames) {
+            bh.consume(typeFactory.get(name));
+        }
+    }
+
+    /**
+     * Looks up the existing types of all objects.
+     */
+    @Benchmark
+    public void getExistingTypes(Blackhole bh) {
+        for (String name : typeNames) {
+            Type type = warmTypeFactory.get(name);
+            bh.consume(type);
+        }
+    }
+}
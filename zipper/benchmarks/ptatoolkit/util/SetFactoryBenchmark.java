@@ -0,0 +1,134 @@
+package ptatoolkit.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ptatoolkit.pta.util.BitmapSet;
+import ptatoolkit.pta.util.DenseBitmapSet;
+import ptatoolkit.pta.util.Numberable;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmarks of interning sets by {@link SetFactory}, where most requested
+ * sets are equal to some earlier ones, as the PCE method sets of the
+ * objects allocated in the same methods are. Each request builds its
+ * set from the element IDs, as the callers of the factory do, thus the
+ * set representations are compared including their construction.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetFactoryBenchmark {
+
+    private static final int NR_ELEMENTS = 20000;
+    private static final int NR_DISTINCT_SETS = 1000;
+    private static final int NR_REQUESTS = 10000;
+
+    @Param({"hash", "bitmap", "dense"})
+    public String kind;
+
+    private Element[] elements;
+    private IntFunction<Element> elementOf;
+    // the element IDs of the requested sets
+    private int[][] requests;
+
+    private static class Element extends Numberable {
+
+        private final int id;
+
+        private Element(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int getID() {
+            return id;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(2018);
+        elements = new Element[NR_ELEMENTS];
+        for (int i = 0; i < NR_ELEMENTS; ++i) {
+            elements[i] = new Element(i);
+        }
+        elementOf = id -> elements[id];
+        // the elements of a set are mostly close to each other,
+        // as the IDs of the methods of a class are
+        int[][] distinctSets = new int[NR_DISTINCT_SETS][];
+        for (int i = 0; i < NR_DISTINCT_SETS; ++i) {
+            int size = 1 + random.nextInt(random.nextDouble() < 0.9 ? 20 : 500);
+            int base = random.nextInt(NR_ELEMENTS - 2000);
+            distinctSets[i] = random.ints(size, base, base + 2000)
+                    .distinct().toArray();
+        }
+        requests = new int[NR_REQUESTS][];
+        for (int i = 0; i < NR_REQUESTS; ++i) {
+            requests[i] = distinctSets[random.nextInt(NR_DISTINCT_SETS)];
+        }
+    }
+
+    @Benchmark
+    public void internSets(Blackhole bh) {
+        switch (kind) {
+            case "hash": {
+                SetFactory<Element> factory = new SetFactory<>();
+                for (int[] ids : requests) {
+                    Set<Element> set = new HashSet<>();
+                    for (int id : ids) {
+                        set.add(elements[id]);
+                    }
+                    bh.consume(factory.get(set));
+                }
+                break;
+            }
+            case "bitmap": {
+                SetFactory<Element> factory = new SetFactory<>();
+                for (int[] ids : requests) {
+                    CompressedBitSet bits = new CompressedBitSet();
+                    for (int id : ids) {
+                        bits.add(id);
+                    }
+                    bits.trim();
+                    bh.consume(factory.get(
+                            new BitmapSet<>(bits, elementOf)));
+                }
+                break;
+            }
+            case "dense": {
+                SetFactory<Element> factory = new SetFactory<>();
+                for (int[] ids : requests) {
+                    BitSet bits = new BitSet();
+                    for (int id : ids) {
+                        bits.set(id);
+                    }
+                    bh.consume(factory.get(
+                            new DenseBitmapSet<>(bits, elementOf)));
+                }
+                break;
+            }
+            default:
+                throw new RuntimeException("Unknown set kind: " + kind);
+        }
+    }
+}
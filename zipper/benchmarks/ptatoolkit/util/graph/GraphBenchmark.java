@@ -0,0 +1,107 @@
+package ptatoolkit.util.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ptatoolkit.util.IntStack;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the graph algorithms run by Zipper on a random graph
+ * in CSR form shaped like a flow graph: most edges go forward to nearby
+ * nodes, and a few go backward, which form many small cycles.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBenchmark {
+
+    @Param({"10000", "100000"})
+    public int nrNodes;
+
+    private int[] offsets;
+    private int[] succs;
+    private IntStronglyConnectedComponents scc;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(2018);
+        IntStack offsetList = new IntStack(nrNodes + 1);
+        IntStack succList = new IntStack(nrNodes * 3);
+        for (int i = 0; i < nrNodes; ++i) {
+            offsetList.push(succList.size());
+            for (int j = 0, n = 1 + random.nextInt(3); j < n; ++j) {
+                int succ = i + 1 + random.nextInt(50);
+                if (succ < nrNodes) {
+                    succList.push(succ);
+                }
+            }
+            if (i > 0 && random.nextDouble() < 0.05) {
+                succList.push(Math.max(0, i - 1 - random.nextInt(20)));
+            }
+        }
+        offsetList.push(succList.size());
+        offsets = offsetList.toArray();
+        succs = succList.toArray();
+        scc = new IntStronglyConnectedComponents(nrNodes, offsets, succs);
+        pool = ComponentLevels.poolOf(
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public IntStronglyConnectedComponents computeSCCs() {
+        return new IntStronglyConnectedComponents(nrNodes, offsets, succs);
+    }
+
+    @Benchmark
+    public IntStronglyConnectedComponents computeSCCsInParallel() {
+        return new IntStronglyConnectedComponents(nrNodes, offsets, succs,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public ComponentLevels computeLevels() {
+        return new ComponentLevels(scc, offsets, succs);
+    }
+
+    /**
+     * Folds the component sizes from the sinks, as the OAG and PCE do
+     * with their sets.
+     */
+    @Benchmark
+    public void foldLevels(Blackhole bh) {
+        int[] sums = new int[scc.nrComponents()];
+        new ComponentLevels(scc, offsets, succs).forEach(pool, c -> {
+            int sum = scc.memberEnd(c) - scc.memberStart(c);
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                int v = scc.memberAt(i);
+                for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                    int succ = scc.componentOf(succs[e]);
+                    if (succ != c) {
+                        sum += sums[succ];
+                    }
+                }
+            }
+            sums[c] = sum;
+        });
+        bh.consume(sums);
+    }
+}
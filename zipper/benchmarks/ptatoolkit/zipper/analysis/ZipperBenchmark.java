@@ -0,0 +1,122 @@
+package ptatoolkit.zipper.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ptatoolkit.Global;
+import ptatoolkit.Options;
+import ptatoolkit.bench.SyntheticDoop;
+import ptatoolkit.pta.basic.Method;
+import ptatoolkit.pta.basic.Obj;
+import ptatoolkit.pta.basic.Type;
+import ptatoolkit.zipper.Main;
+import ptatoolkit.zipper.flowgraph.FlowAnalysis;
+import ptatoolkit.zipper.flowgraph.ObjectFlowGraph;
+import ptatoolkit.zipper.pta.PointsToAnalysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of the analysis of Zipper on a synthetic program:
+ * building the object flow graph, and the flow analysis (i.e., the DFS
+ * over the object flow graph) of a type, which computes the IN and
+ * OUT methods of the type by {@link Zipper} as it does for each type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xss4m")
+@State(Scope.Benchmark)
+public class ZipperBenchmark {
+
+    private static final String APP = "bench";
+
+    @Param({"20", "50"})
+    public int scale;
+
+    private File cacheDir;
+    private PointsToAnalysis pta;
+    private Zipper zipper;
+    private List<Type> types;
+    private Type largestType;
+    // the flow analysis shared by the invocations of analyzeNextType
+    private FlowAnalysis fa;
+    private int nextType = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("zipper-bench").toFile();
+        SyntheticDoop.generate(cacheDir, APP, scale, 2018);
+        Global.reset();
+        Options opt = Options.parse(new String[] {
+                "-pta", "ptatoolkit.zipper.doop.DoopPointsToAnalysis",
+                "-app", APP,
+                "-cache", cacheDir.getPath(),
+        });
+        pta = Main.readPointsToAnalysis(opt);
+        zipper = new Zipper(pta, new ObjectFlowGraph(pta));
+        types = pta.allObjects().stream()
+                .map(Obj::getType)
+                .distinct()
+                .sorted(Comparator.comparing(Type::toString))
+                .collect(Collectors.toList());
+        largestType = types.stream()
+                .max(Comparator.comparingLong(zipper::estimateCost))
+                .get();
+        fa = zipper.newFlowAnalysis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticDoop.delete(cacheDir);
+    }
+
+    @Benchmark
+    public ObjectFlowGraph buildObjectFlowGraph() {
+        return new ObjectFlowGraph(pta);
+    }
+
+    @Benchmark
+    public void analyzeLargestType(Blackhole bh) {
+        analyze(largestType, bh);
+    }
+
+    /**
+     * Analyzes the types in turn, one type per invocation, thus
+     * the throughput is the number of types analyzed per second.
+     */
+    @Benchmark
+    public void analyzeNextType(Blackhole bh) {
+        Type type = types.get(nextType);
+        nextType = (nextType + 1) % types.size();
+        analyze(type, bh);
+    }
+
+    private void analyze(Type type, Blackhole bh) {
+        Set<Method> ms = zipper.getMethodsOf(type);
+        Set<Method> inms = zipper.getINMethods(ms);
+        fa.initialize(type, inms, zipper.getOUTMethods(type, ms));
+        inms.forEach(fa::analyze);
+        bh.consume(fa.getFlowNodes());
+        fa.clear();
+    }
+}
@@ -0,0 +1,24 @@
+# Build the JMH benchmarks of Zipper into build/benchmarks.jar.
+# The JMH jars (jmh-core, jmh-generator-annprocess, jopt-simple and
+# commons-math3) are expected in lib/. Run the benchmarks with, e.g.,
+#   java -cp "build/benchmarks.jar:lib/*" org.openjdk.jmh.Main -prof gc
+# which reports the throughput and the allocation rate of each benchmark.
+
+for jar in jmh-core jmh-generator-annprocess jopt-simple commons-math3; do
+ if ! ls lib/$jar-*.jar > /dev/null 2>&1; then
+  echo "Missing lib/$jar-*.jar, which is required by the benchmarks"
+  exit 1
+ fi
+done
+
+if [ ! -d "build/benchmarks" ]; then
+ mkdir -p build/benchmarks
+else
+ rm -rf build/benchmarks/*
+fi
+
+CP="lib/*"
+
+javac -classpath "$CP" $(find src benchmarks -name "*.java") -d build/benchmarks
+jar -cvf benchmarks.jar -C build/benchmarks .
+mv benchmarks.jar build
@@ -0,0 +1,16 @@
+# Build and run the tests of Zipper, each of which is a class named
+# *Test under test/ with a main method that fails by an exception.
+# The tests generate their inputs by benchmarks/ptatoolkit/bench.
+
+if [ ! -d "build/tests" ]; then
+ mkdir -p build/tests
+else
+ rm -rf build/tests/*
+fi
+
+CP="lib/sootclasses-2.5.0.jar:lib/guava-23.0.jar"
+
+javac -classpath $CP $(find src benchmarks/ptatoolkit/bench test -name "*.java") -d build/tests || exit 1
+for test in $(cd test && find . -name "*Test.java" | sed 's|^\./||; s|\.java$||; s|/|.|g'); do
+ java -Xss4m -classpath "build/tests:$CP" $test || exit 1
+done
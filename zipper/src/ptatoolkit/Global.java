@@ -14,6 +14,17 @@ public class Global {
 
     public static final int UNDEFINE = -1;
 
+    // Doop database
+    private static boolean factCache = true;
+
+    public static boolean isFactCache() {
+        return factCache;
+    }
+
+    public static void setFactCache(boolean factCache) {
+        Global.factCache = factCache;
+    }
+
     // Zipper
     private static String flow = null;
 
@@ -65,6 +76,18 @@ public class Global {
         Global.expressThreshold = expressThreshold;
     }
 
+    // thresholds of Zipper-e which are swept after one analysis,
+    // null means no sweep
+    private static float[] expressSweep = null;
+
+    public static float[] getExpressSweep() {
+        return expressSweep;
+    }
+
+    public static void setExpressSweep(float[] expressSweep) {
+        Global.expressSweep = expressSweep;
+    }
+
     private static int thread = UNDEFINE;
 
     public static int getThread() {
@@ -75,6 +98,63 @@ public class Global {
         Global.thread = thread;
     }
 
+    // minimum estimated cost of the types whose analyses are split
+    // across threads, UNDEFINE means the fair share of a thread
+    private static int splitCost = UNDEFINE;
+
+    public static int getSplitCost() {
+        return splitCost;
+    }
+
+    public static void setSplitCost(int splitCost) {
+        Global.splitCost = splitCost;
+    }
+
+    // size (in MB) of the cache of assignment closures, 0 means no cache
+    private static int closureCacheSize = 0;
+
+    public static int getClosureCacheSize() {
+        return closureCacheSize;
+    }
+
+    public static void setClosureCacheSize(int closureCacheSize) {
+        Global.closureCacheSize = closureCacheSize;
+    }
+
+    // whether the SCCs of OFG are condensed before the flow analyses
+    private static boolean condenseOFG = false;
+
+    public static boolean isCondenseOFG() {
+        return condenseOFG;
+    }
+
+    public static void setCondenseOFG(boolean condenseOFG) {
+        Global.condenseOFG = condenseOFG;
+    }
+
+    // whether Zipper reuses the per-type results of the previous run
+    private static boolean incremental = false;
+
+    public static boolean isIncremental() {
+        return incremental;
+    }
+
+    public static void setIncremental(boolean incremental) {
+        Global.incremental = incremental;
+    }
+
+    // memory budget (in MB) for loading points-to facts,
+    // UNDEFINE means that they are loaded in memory at once
+    private static int vptBudget = UNDEFINE;
+
+    public static int getVPTBudget() {
+        return vptBudget;
+    }
+
+    public static void setVPTBudget(int vptBudget) {
+        Global.vptBudget = vptBudget;
+    }
+
     // Scaler
     private static int tst = UNDEFINE;
 
@@ -95,4 +175,27 @@ public class Global {
     public static void setListContext(boolean listContext) {
         Global.listContext = listContext;
     }
+
+    /**
+     * Restore all options to their defaults, so that a long-running
+     * process can parse the options of each request from scratch.
+     */
+    public static void reset() {
+        debug = false;
+        factCache = true;
+        flow = null;
+        enableWrappedFlow = true;
+        enableUnwrappedFlow = true;
+        isExpress = false;
+        expressThreshold = 0.05f;
+        expressSweep = null;
+        thread = UNDEFINE;
+        splitCost = UNDEFINE;
+        closureCacheSize = 0;
+        condenseOFG = false;
+        incremental = false;
+        vptBudget = UNDEFINE;
+        tst = UNDEFINE;
+        listContext = false;
+    }
 }
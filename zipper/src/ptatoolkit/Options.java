@@ -5,6 +5,7 @@ public class Options {
 	private String pta;
 	private String dbPath;
 	private String cachePath;
+	private String dumpPath;
 	private String app;
 	private String outPath;
 
@@ -37,6 +38,14 @@ public class Options {
 		this.cachePath = cachePath;
 	}
 
+	public String getDumpPath() {
+		return dumpPath;
+	}
+
+	public void setDumpPath(String dumpPath) {
+		this.dumpPath = dumpPath;
+	}
+
 	public String getApp() {
 		return app;
 	}
@@ -97,6 +106,9 @@ public class Options {
 			} else if (args[i].equals("-cache")) {
 				i = shift(args, i);
 				opt.setCachePath(args[i]);
+			} else if (args[i].equals("-dumps")) {
+				i = shift(args, i);
+				opt.setDumpPath(args[i]);
 			} else if (args[i].equals("-app")) {
 				i = shift(args, i);
 				opt.setApp(args[i]);
@@ -112,6 +124,8 @@ public class Options {
 			} else if (args[i].equals("-app2")) {
 				i = shift(args, i);
 				opt.setApp2(args[i]);
+			} else if (args[i].equals("-no-fact-cache")) {
+				Global.setFactCache(false);
 			} else if (args[i].equals("-debug")) {
 				opt.setIsDebug(true);
 				Global.setDebug(true);
@@ -159,9 +173,30 @@ public class Options {
 						e.printStackTrace();
 					} // Not a float
 				}
+			} else if (args[i].equals("-express-sweep")) {
+				i = shift(args, i);
+				String[] values = args[i].split(",");
+				float[] thresholds = new float[values.length];
+				for (int j = 0; j < values.length; ++j) {
+					thresholds[j] = Float.parseFloat(values[j].trim());
+				}
+				Global.setExpressSweep(thresholds);
 			} else if (args[i].equals("-thread")) {
 				i = shift(args, i);
 				Global.setThread(Integer.parseInt(args[i]));
+			} else if (args[i].equals("-split-cost")) {
+				i = shift(args, i);
+				Global.setSplitCost(Integer.parseInt(args[i]));
+			} else if (args[i].equals("-closure-cache")) {
+				i = shift(args, i);
+				Global.setClosureCacheSize(Integer.parseInt(args[i]));
+			} else if (args[i].equals("-condense-ofg")) {
+				Global.setCondenseOFG(true);
+			} else if (args[i].equals("-incremental")) {
+				Global.setIncremental(true);
+			} else if (args[i].equals("-vpt-budget")) {
+				i = shift(args, i);
+				Global.setVPTBudget(Integer.parseInt(args[i]));
 			} else if (args[i].equals("-tst")) {
 				i = shift(args, i);
 				Global.setTST(Integer.parseInt(args[i]));
@@ -176,9 +211,8 @@ public class Options {
 	
 	private static int shift(String[] args, int index) {
 		if (args.length == index + 1) {
-			System.err.println("error: option " + args[index]
+			throw new RuntimeException("Option " + args[index]
 					+ " requires an argument");
-			System.exit(1);
 		}
 
 		return index + 1;
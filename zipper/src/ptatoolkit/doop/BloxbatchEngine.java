@@ -0,0 +1,63 @@
+package ptatoolkit.doop;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The engine which evaluates queries on a LogicBlox database by bloxbatch.
+ *
+ * The results of bloxbatch are read directly from its standard output,
+ * instead of being redirected to a file by a shell.
+ */
+public class BloxbatchEngine implements QueryEngine {
+
+    private final File dbDir;
+    // bloxbatch processes which are not finished
+    private final Set<Process> running =
+            Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public BloxbatchEngine(File dbDir) {
+        this.dbDir = dbDir;
+    }
+
+    @Override
+    public InputStream evaluate(Query query) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder("bloxbatch",
+                "-db", dbDir.getAbsolutePath(), "-query", query.toString());
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process proc = builder.start();
+        running.add(proc);
+        proc.getOutputStream().close();
+        return new FilterInputStream(proc.getInputStream()) {
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                try {
+                    int exit = proc.waitFor();
+                    if (exit != 0) {
+                        throw new IOException("bloxbatch exits with " + exit
+                                + " on query " + query.name());
+                    }
+                } catch (InterruptedException e) {
+                    proc.destroy();
+                    throw new IOException("interrupted during query "
+                            + query.name());
+                } finally {
+                    running.remove(proc);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        running.forEach(Process::destroy);
+        running.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package ptatoolkit.doop;
+
+import java.nio.IntBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator on the columns of the results of given query. Each "next"
+ * element corresponds to a tuple of the query result.
+ */
+class ColumnarResultItr implements Iterator<int[]> {
+
+    private final Query query;
+    private final IntBuffer[] columns;
+    private final int rows;
+    private int row = 0;
+
+    ColumnarResultItr(Query query, IntBuffer[] columns, int rows) {
+        this.query = query;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return row < rows;
+    }
+
+    @Override
+    public int[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(query.name());
+        }
+        int[] tuple = new int[columns.length];
+        for (int i = 0; i < columns.length; ++i) {
+            tuple[i] = columns[i].get(row);
+        }
+        ++row;
+        return tuple;
+    }
+}
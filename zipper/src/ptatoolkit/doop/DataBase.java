@@ -1,9 +1,30 @@
 package ptatoolkit.doop;
 
+import com.google.common.collect.Iterators;
+import ptatoolkit.Global;
+
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A class that represents the database of Doop.
@@ -11,25 +32,324 @@ import java.util.List;
  */
 public class DataBase {
 
-	private final File dbDir;
+	// evaluates the queries whose results are absent in cacheDir
+	private final QueryEngine engine;
 	private final File cacheDir;
 	private final String program;
+	private final SymbolTable symbols = new SymbolTable();
+	private final FactCache factCache;
+	// results of prefetched queries which have not been issued yet
+	private final Map<Query, Future<ParsedResult>> prefetched =
+			new ConcurrentHashMap<>();
+	// queries to prefetch which have not been submitted yet, each of
+	// which is submitted when the result of a former one is taken
+	private final Deque<Query> toPrefetch = new ArrayDeque<>();
+	private ExecutorService prefetcher;
 	
 	public DataBase(File dbDir, File cacheDir, String program) {
-		this.dbDir = dbDir;
+		this(dbDir != null ? new BloxbatchEngine(dbDir) : null,
+				cacheDir, program);
+	}
+
+	public DataBase(QueryEngine engine, File cacheDir, String program) {
+		this.engine = engine;
 		this.cacheDir = cacheDir;
 		this.program = program;
+		this.factCache = Global.isFactCache() ?
+				new FactCache(cacheDir, program, symbols) : null;
+	}
+
+	/**
+	 * @return the symbol table which interns all names in this database.
+	 */
+	public SymbolTable symbols() {
+		return symbols;
 	}
 
 	/** Return the results of the give query. */
 	public Iterator<List<String>> query(Query query) {
+		if (factCache != null) {
+			return Iterators.transform(querySymbols(query), tuple -> {
+				String[] texts = new String[tuple.length];
+				for (int i = 0; i < tuple.length; ++i) {
+					texts[i] = symbols.text(tuple[i]);
+				}
+				return Arrays.asList(texts);
+			});
+		}
 		File resultFile = getResultFile(query);
 		return new QueryResultItr(query, resultFile);
 	}
 
+	/**
+	 * Parse the results of given queries concurrently in background
+	 * threads. Each query is parsed with its own symbol table, and the
+	 * parsed result is merged into the symbol table of this database
+	 * when the query is issued. As queries are issued in the same order
+	 * as without prefetching, the symbols (and thus the elements built
+	 * from them) are the same. At most as many queries as the threads
+	 * are parsed or held at a time: the next query is submitted when
+	 * the result of a former one is taken, and a query which is issued
+	 * before it is submitted is not prefetched at all.
+	 * @param queries
+	 */
+	public void prefetch(Collection<Query> queries) {
+		int nrThreads = Math.min(queries.size(),
+				Runtime.getRuntime().availableProcessors());
+		if (nrThreads <= 1) {
+			return;
+		}
+		synchronized (toPrefetch) {
+			if (prefetcher == null || prefetcher.isShutdown()) {
+				prefetcher = Executors.newFixedThreadPool(nrThreads, r -> {
+					Thread thread = new Thread(r, "Doop loader");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			toPrefetch.addAll(queries);
+			for (int i = 0; i < nrThreads; ++i) {
+				submitNextPrefetch();
+			}
+		}
+	}
+
+	/**
+	 * Submit the next query to prefetch, if any. The caller must hold
+	 * the lock of toPrefetch.
+	 */
+	private void submitNextPrefetch() {
+		Query query = toPrefetch.poll();
+		if (query == null) {
+			if (prefetcher != null) {
+				prefetcher.shutdown();
+			}
+			return;
+		}
+		prefetched.put(query, prefetcher.submit(() -> {
+			if (factCache != null && factCache.isFresh(query,
+					new File(getResultFilePath(query.name())))) {
+				return null; // no need to parse the text dump
+			}
+			return ParsedResult.parse(query, getResultFile(query),
+					new SymbolTable());
+		}));
+	}
+
+	/**
+	 * Return the results of the give query, where each element
+	 * of a tuple is represented by its symbol.
+	 */
+	public Iterator<int[]> querySymbols(Query query) {
+		ParsedResult parsed = takePrefetched(query);
+		if (factCache != null) {
+			File textFile = new File(getResultFilePath(query.name()));
+			if (parsed != null) {
+				factCache.write(parsed.remap(symbols), textFile);
+			} else if (!factCache.isFresh(query, textFile)) {
+				factCache.convert(query, getResultFile(query));
+			}
+			return factCache.read(query);
+		}
+		if (parsed != null) {
+			return parsed.remap(symbols).iterator();
+		}
+		return new DumpTokenizer(query, getResultFile(query), symbols);
+	}
+
+	/**
+	 * Return the results of the give query like querySymbols, but never
+	 * hold all of them in memory: they are read from the fact cache if
+	 * it is fresh, and otherwise streamed from the text dump, which is
+	 * not converted into the cache. The query should not be prefetched.
+	 */
+	public Iterator<int[]> streamSymbols(Query query) {
+		if (prefetched.containsKey(query)) {
+			return querySymbols(query);
+		}
+		synchronized (toPrefetch) {
+			toPrefetch.remove(query);
+		}
+		if (factCache != null && factCache.isFresh(query,
+				new File(getResultFilePath(query.name())))) {
+			return factCache.read(query);
+		}
+		return new DumpTokenizer(query, getResultFile(query), symbols);
+	}
+
+	/**
+	 * Evaluate given queries by the engine of this database in parallel,
+	 * and write their results into the fact cache directly, i.e., without
+	 * text dumps. The results are merged into the cache in the order of
+	 * queries, so the symbols are the same as if they were queried in
+	 * this order. At most as many queries as the threads are evaluated
+	 * or held at a time: the next query is submitted when the result of
+	 * the earliest one has been taken.
+	 */
+	public void export(List<Query> queries) {
+		if (engine == null || factCache == null) {
+			throw new RuntimeException(
+					"Exporting requires a query engine and the fact cache");
+		}
+		int nrThreads = Math.max(1, Math.min(queries.size(),
+				Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(nrThreads, r -> {
+			Thread thread = new Thread(r, "Doop exporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			// results of the queries in flight, in the order of queries
+			Deque<Future<ParsedResult>> results = new ArrayDeque<>();
+			Iterator<Query> toSubmit = queries.iterator();
+			for (int i = 0; i < nrThreads && toSubmit.hasNext(); ++i) {
+				results.add(submitExport(executor, toSubmit.next()));
+			}
+			for (Query query : queries) {
+				ParsedResult parsed = await(query, results.poll());
+				if (toSubmit.hasNext()) {
+					results.add(submitExport(executor, toSubmit.next()));
+				}
+				File textFile = new File(getResultFilePath(query.name()));
+				// a stale text dump would invalidate the exported columns
+				if (textFile.exists() && !textFile.delete()) {
+					throw new RuntimeException("Cannot delete " + textFile);
+				}
+				factCache.write(parsed.remap(symbols), textFile);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Future<ParsedResult> submitExport(ExecutorService executor,
+	                                          Query query) {
+		return executor.submit(() -> ParsedResult.parse(
+				query, engine.evaluate(query), new SymbolTable()));
+	}
+
+	/**
+	 * @return a digest of the results of given queries, which
+	 * changes whenever any of these results changes.
+	 */
+	public String digest(Collection<Query> queries) {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		for (File file : getInputFiles(queries)) {
+			md.update(file.getName().getBytes(StandardCharsets.UTF_8));
+			update(md, file);
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : md.digest()) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * @return a stamp of the results of given queries, i.e., the names,
+	 * lengths and modification times of the files read by
+	 * {@link #digest(Collection)}. It is much cheaper than the digest,
+	 * and the digest is unchanged if the stamp is unchanged.
+	 */
+	public String stamp(Collection<Query> queries) {
+		StringBuilder stamp = new StringBuilder();
+		for (File file : getInputFiles(queries)) {
+			try {
+				stamp.append(file.getName()).append(':')
+						.append(file.length()).append(':')
+						.append(Files.getLastModifiedTime(file.toPath()).toMillis())
+						.append(';');
+			} catch (IOException e) {
+				throw new RuntimeException("Reading " + file +
+						" fails, caused by " + e.getMessage());
+			}
+		}
+		return stamp.toString();
+	}
+
+	/**
+	 * @return the files which hold the results of given queries.
+	 */
+	private List<File> getInputFiles(Collection<Query> queries) {
+		List<File> files = new ArrayList<>();
+		boolean exported = false;
+		for (Query query : queries) {
+			File textFile = new File(getResultFilePath(query.name()));
+			if (!textFile.exists() && factCache != null
+					&& factCache.isFresh(query, textFile)) {
+				// exported results only exist in the fact cache
+				files.add(factCache.getColumnFile(query));
+				exported = true;
+			} else {
+				files.add(getResultFile(query));
+			}
+		}
+		if (exported) {
+			files.add(factCache.getDictionaryFile());
+		}
+		return files;
+	}
+
+	private static void update(MessageDigest md, File file) {
+		byte[] buffer = new byte[1 << 16];
+		try (InputStream in = new FileInputStream(file)) {
+			for (int n; (n = in.read(buffer)) > 0; ) {
+				md.update(buffer, 0, n);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Reading " + file +
+					" fails, caused by " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Wait for and return the prefetched result of given query, which
+	 * is then released by this database, and hand its slot over to the
+	 * next query to prefetch.
+	 * @return the parsed result, or null if the query is not prefetched
+	 * or does not need parsing.
+	 */
+	private ParsedResult takePrefetched(Query query) {
+		Future<ParsedResult> future = prefetched.remove(query);
+		if (future == null) {
+			synchronized (toPrefetch) {
+				// the query is issued before it is submitted
+				toPrefetch.remove(query);
+			}
+			return null;
+		}
+		try {
+			return await(query, future);
+		} finally {
+			synchronized (toPrefetch) {
+				submitNextPrefetch();
+			}
+		}
+	}
+
+	private static ParsedResult await(Query query, Future<ParsedResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException("Exception during query: "
+					+ query.toString());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("Query " + query + " fails, " +
+					"caused by " + e.getCause());
+		}
+	}
+
 	/**
 	 * Get the result file according to given query. If the file does not exist,
-	 * invoke bloxbatch to create the file.
+	 * evaluate the query by the engine to create the file.
 	 * @param query
 	 * @return
 	 */
@@ -37,27 +357,23 @@ public class DataBase {
 		String queryName = query.name();
 		File resultFile = new File(getResultFilePath(queryName));
 		if (!resultFile.exists()) {
-			// Invoke bloxbatch to create the result file
-			String[] cmd = new String[3];
-			cmd[0] = "/bin/sh";
-			cmd[1] = "-c";
-			// Must use single quotation marks ('') to surround the query,
-			// otherwise /bin/sh may fail.
-			cmd[2] = String.format("bloxbatch -db %s -query '%s' > %s",
-					dbDir.getAbsolutePath(), query.toString(),
-					resultFile.toString());
-			try {
-				Runtime rt = Runtime.getRuntime();
-				Process proc = rt.exec(cmd);
-				proc.waitFor();
-			} catch (InterruptedException e) {
-				throw new RuntimeException("Exception during query: "
-						+ query.toString());
+			if (engine == null) {
+				throw new RuntimeException("Query " + query + " (" + queryName
+						+ ") fails, caused by missing " + resultFile);
+			}
+			File tmpFile = new File(resultFile.getPath() + ".tmp");
+			try (InputStream in = engine.evaluate(query)) {
+				Files.copy(in, tmpFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
 			} catch (IOException e) {
+				tmpFile.delete();
 				throw new RuntimeException("Query " + query +
 						" (" + queryName + ") fails, " +
 						"caused by " + e.getMessage());
 			}
+			if (!tmpFile.renameTo(resultFile)) {
+				throw new RuntimeException("Cannot create " + resultFile);
+			}
 		}
 		return resultFile;
 	}
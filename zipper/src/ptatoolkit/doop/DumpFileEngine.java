@@ -0,0 +1,32 @@
+package ptatoolkit.doop;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A stand-in engine which answers queries with the text dumps in a
+ * directory, i.e., file "program.QUERY" for each query. This allows
+ * the export of Doop results without a LogicBlox installation.
+ */
+public class DumpFileEngine implements QueryEngine {
+
+    private final File dumpDir;
+    private final String program;
+
+    public DumpFileEngine(File dumpDir, String program) {
+        this.dumpDir = dumpDir;
+        this.program = program;
+    }
+
+    @Override
+    public InputStream evaluate(Query query) throws IOException {
+        return new FileInputStream(new File(dumpDir,
+                String.format("%s.%s", program, query.name())));
+    }
+
+    @Override
+    public void close() {
+    }
+}
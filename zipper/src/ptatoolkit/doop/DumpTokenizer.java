@@ -0,0 +1,286 @@
+package ptatoolkit.doop;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator on the result file of given query, which is tokenized
+ * directly from a memory-mapped buffer. Each "next" element is the
+ * tuple of a line, whose elements are interned into a symbol table.
+ *
+ * Lines are split as {@link QueryResultItr} does, i.e., trimmed and then
+ * separated by ", ", but the elements are interned from their UTF-8 byte
+ * slices, so no String is created for a line or an element. The file
+ * is mapped in windows, thus it may exceed 2 GB, and it is closed when
+ * the iteration completes or when the iterator is closed.
+ *
+ * Results which are not in a file, e.g., the output of a query engine,
+ * are tokenized from an input stream in the same way.
+ */
+class DumpTokenizer implements Iterator<int[]>, Closeable {
+
+    private static final int WINDOW_SIZE = 1 << 30;
+    private static final byte NEWLINE = '\n';
+    private static final byte SEP0 = ',';
+    private static final byte SEP1 = ' ';
+
+    private final Query query;
+    private final SymbolTable symbols;
+    private final int windowSize;
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0; // file position of window
+    // the stream and its buffer, if the results are not in a file
+    private InputStream in;
+    private byte[] buffer;
+    private int bufferPos = 0;
+    private int bufferLimit = 0;
+    // current line, copied out of the window
+    private byte[] line = new byte[256];
+    // bounds of the elements of current line
+    private int[] from = new int[4];
+    private int[] to = new int[4];
+    private int nrLines = 0;
+
+    DumpTokenizer(Query query, File resultFile, SymbolTable symbols) {
+        this(query, resultFile, symbols, WINDOW_SIZE);
+    }
+
+    DumpTokenizer(Query query, File resultFile, SymbolTable symbols,
+                  int windowSize) {
+        this.query = query;
+        this.symbols = symbols;
+        this.windowSize = windowSize;
+        try {
+            file = new RandomAccessFile(resultFile, "r");
+            channel = file.getChannel();
+            fileSize = channel.size();
+            map(0);
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Query " + query + " fails, " +
+                    "caused by " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tokenize the results of query from in, which is closed
+     * by this tokenizer.
+     */
+    DumpTokenizer(Query query, InputStream in, SymbolTable symbols) {
+        this.query = query;
+        this.symbols = symbols;
+        this.windowSize = 0;
+        this.fileSize = 0;
+        this.in = in;
+        this.buffer = new byte[1 << 16];
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (in != null) {
+            if (bufferPos < bufferLimit || fill()) {
+                return true;
+            }
+        } else if (file != null
+                && windowStart + window.position() < fileSize) {
+            return true;
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public int[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(query.name());
+        }
+        int length = readLine();
+        int arity = split(length);
+        int[] tuple = new int[arity];
+        for (int i = 0; i < arity; ++i) {
+            tuple[i] = symbols.intern(line, from[i], to[i]);
+        }
+        return tuple;
+    }
+
+    /**
+     * @return the number of lines which have been read.
+     */
+    int nrLines() {
+        return nrLines;
+    }
+
+    @Override
+    public void close() {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Query " + query + " fails, " +
+                        "caused by " + e.getMessage());
+            } finally {
+                in = null;
+            }
+        }
+        if (file != null) {
+            try {
+                file.close(); // also closes the channel
+            } catch (IOException e) {
+                // nothing to release
+            }
+            file = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * Copy the next line (without its terminator) into line.
+     * @return the length of the line.
+     */
+    private int readLine() {
+        if (in != null) {
+            return readStreamLine();
+        }
+        int start = window.position();
+        int end = indexOfNewline(start);
+        if (end == -1 && windowStart + window.limit() < fileSize) {
+            // the line crosses the window, so map from the line start
+            map(windowStart + start);
+            start = 0;
+            end = indexOfNewline(start);
+            if (end == -1 && window.limit() == windowSize) {
+                throw new RuntimeException("Query " + query + " fails, " +
+                        "caused by too long line " + (nrLines + 1));
+            }
+        }
+        int lineEnd = end != -1 ? end : window.limit();
+        int length = lineEnd - start;
+        if (length > line.length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(line, 0, length);
+        if (end != -1) {
+            window.position(end + 1); // skip the newline
+        }
+        ++nrLines;
+        return length;
+    }
+
+    private int readStreamLine() {
+        int length = 0;
+        while (bufferPos < bufferLimit || fill()) {
+            int end = bufferPos;
+            while (end < bufferLimit && buffer[end] != NEWLINE) {
+                ++end;
+            }
+            int n = end - bufferPos;
+            if (length + n > line.length) {
+                line = Arrays.copyOf(line, Math.max(length + n, line.length * 2));
+            }
+            System.arraycopy(buffer, bufferPos, line, length, n);
+            length += n;
+            bufferPos = end;
+            if (end < bufferLimit) { // skip the newline
+                ++bufferPos;
+                break;
+            }
+        }
+        ++nrLines;
+        return length;
+    }
+
+    /**
+     * Read more bytes from the stream into the empty buffer.
+     * @return false if the stream is exhausted.
+     */
+    private boolean fill() {
+        if (in == null) {
+            return false;
+        }
+        try {
+            int n;
+            do {
+                n = in.read(buffer);
+            } while (n == 0);
+            bufferPos = 0;
+            bufferLimit = Math.max(n, 0);
+            return n > 0;
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Query " + query + " fails, " +
+                    "caused by " + e.getMessage());
+        }
+    }
+
+    private int indexOfNewline(int start) {
+        for (int i = start, limit = window.limit(); i < limit; ++i) {
+            if (window.get(i) == NEWLINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Trim line[0, length) and split it by ", " like String.split.
+     * @return the number of elements.
+     */
+    private int split(int length) {
+        int start = 0;
+        int end = length;
+        while (start < end && (line[start] & 0xff) <= ' ') {
+            ++start;
+        }
+        while (end > start && (line[end - 1] & 0xff) <= ' ') {
+            --end;
+        }
+        int n = 0;
+        int elemStart = start;
+        for (int i = start; i + 1 < end; ++i) {
+            if (line[i] == SEP0 && line[i + 1] == SEP1) {
+                n = addElement(n, elemStart, i);
+                elemStart = i + 2;
+                ++i;
+            }
+        }
+        n = addElement(n, elemStart, end);
+        // String.split drops the trailing empty elements
+        while (n > 1 && from[n - 1] == to[n - 1]) {
+            --n;
+        }
+        return n;
+    }
+
+    private int addElement(int n, int start, int end) {
+        if (n == from.length) {
+            from = Arrays.copyOf(from, n * 2);
+            to = Arrays.copyOf(to, n * 2);
+        }
+        from[n] = start;
+        to[n] = end;
+        return n + 1;
+    }
+
+    private void map(long position) {
+        try {
+            long size = Math.min(windowSize, fileSize - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            windowStart = position;
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Query " + query + " fails, " +
+                    "caused by " + e.getMessage());
+        }
+    }
+}
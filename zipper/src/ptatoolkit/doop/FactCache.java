@@ -0,0 +1,228 @@
+package ptatoolkit.doop;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+/**
+ * A binary, dictionary-encoded cache of the results of Doop queries.
+ *
+ * Each query result is converted once from its text dump into a
+ * columnar file "program.QUERY.col", in which every tuple element is
+ * an int ID into the string table "program.dict" shared by all queries.
+ * Later runs read the columns back through memory-mapped NIO, and
+ * thus skip all text parsing and per-line string allocation.
+ *
+ * The string table is the persistent image of the {@link SymbolTable}
+ * of the database, i.e., the IDs in the columns are exactly the symbols
+ * of the tuple elements.
+ */
+class FactCache {
+
+    private static final int MAGIC = 0x5a464331; // "ZFC1"
+    // magic, arity, rows, dictionary size, text length, text timestamp
+    private static final int HEADER_SIZE = 4 * 4 + 8 * 2;
+    private static final String DICT_SUFFIX = "dict";
+    private static final String COLUMN_SUFFIX = "col";
+
+    private final File cacheDir;
+    private final String program;
+    private final File dictFile;
+    private final SymbolTable symbols;
+    // number of symbols which have been written to dictFile
+    private int persisted;
+
+    /**
+     * Create the cache and load its string table into symbols,
+     * which must be empty.
+     */
+    FactCache(File cacheDir, String program, SymbolTable symbols) {
+        if (symbols.size() != 0) {
+            throw new IllegalStateException(
+                    "Fact cache requires an empty symbol table");
+        }
+        this.cacheDir = cacheDir;
+        this.program = program;
+        this.dictFile = new File(cacheDir, program + "." + DICT_SUFFIX);
+        this.symbols = symbols;
+        loadDictionary();
+    }
+
+    /**
+     * @param query
+     * @param textFile the text dump of query, which may be absent
+     * @return whether the cached columns of query are up to date
+     * with respect to textFile.
+     */
+    synchronized boolean isFresh(Query query, File textFile) {
+        File colFile = getColumnFile(query);
+        if (!colFile.exists()) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(colFile, "r")) {
+            if (raf.length() < HEADER_SIZE || raf.readInt() != MAGIC) {
+                return false;
+            }
+            int arity = raf.readInt();
+            int rows = raf.readInt();
+            int dictSize = raf.readInt();
+            long textLength = raf.readLong();
+            long textModified = raf.readLong();
+            if (raf.length() != HEADER_SIZE + 4L * arity * rows
+                    || dictSize > persisted) {
+                return false;
+            }
+            return !textFile.exists() ||
+                    (textFile.length() == textLength
+                            && textFile.lastModified() == textModified);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Convert the text dump of query into the columnar format.
+     */
+    synchronized void convert(Query query, File textFile) {
+        write(ParsedResult.parse(query, textFile, symbols), textFile);
+    }
+
+    /**
+     * Write the parsed results of a query, whose symbols must be those
+     * of this cache, in the columnar format.
+     * @param result
+     * @param textFile the text dump from which result is parsed
+     */
+    synchronized void write(ParsedResult result, File textFile) {
+        if (result.symbols != symbols) {
+            throw new IllegalArgumentException("Query " + result.query +
+                    " is parsed with a foreign symbol table");
+        }
+        try {
+            flushDictionary();
+            writeColumns(result, textFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Caching query " + result.query +
+                    " fails, caused by " + e.getMessage());
+        }
+    }
+
+    /**
+     * Return the cached results of the given query. Each tuple
+     * consists of the symbols of its elements.
+     */
+    Iterator<int[]> read(Query query) {
+        File colFile = getColumnFile(query);
+        try (RandomAccessFile raf = new RandomAccessFile(colFile, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.getInt(); // magic
+            int arity = header.getInt();
+            int rows = header.getInt();
+            IntBuffer[] columns = new IntBuffer[arity];
+            long columnSize = 4L * rows;
+            for (int i = 0; i < arity; ++i) {
+                MappedByteBuffer column = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + i * columnSize, columnSize);
+                columns[i] = column.asIntBuffer();
+            }
+            // The mappings remain valid after the channel is closed
+            return new ColumnarResultItr(query, columns, rows);
+        } catch (IOException e) {
+            throw new RuntimeException("Query " + query + " fails, " +
+                    "caused by " + e.getMessage());
+        }
+    }
+
+    File getDictionaryFile() {
+        return dictFile;
+    }
+
+    File getColumnFile(Query query) {
+        return new File(cacheDir, String.format("%s.%s.%s",
+                program, query.name(), COLUMN_SUFFIX));
+    }
+
+    private void loadDictionary() {
+        if (dictFile.exists()) {
+            try (RandomAccessFile raf = new RandomAccessFile(dictFile, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                ByteBuffer buf = channel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                byte[] bytes = new byte[256];
+                int end = 0; // end of the last complete record
+                while (buf.remaining() >= 4) {
+                    int length = buf.getInt();
+                    if (length > buf.remaining()) {
+                        break;
+                    }
+                    if (length > bytes.length) {
+                        bytes = new byte[Math.max(length, bytes.length * 2)];
+                    }
+                    buf.get(bytes, 0, length);
+                    symbols.intern(bytes, 0, length);
+                    end = buf.position();
+                }
+                if (end != channel.size()) {
+                    // drop the truncated record of an interrupted run,
+                    // so that later appends stay aligned
+                    channel.truncate(end);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Reading " + dictFile +
+                        " fails, caused by " + e.getMessage());
+            }
+        }
+        persisted = symbols.size();
+    }
+
+    private void flushDictionary() throws IOException {
+        int size = symbols.size();
+        if (persisted == size) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(dictFile, true)))) {
+            for (int i = persisted; i < size; ++i) {
+                byte[] bytes = symbols.bytes(i);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        persisted = size;
+    }
+
+    private void writeColumns(ParsedResult result, File textFile)
+            throws IOException {
+        Query query = result.query;
+        File colFile = getColumnFile(query);
+        File tmpFile = new File(colFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmpFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(result.arity);
+            out.writeInt(result.rows);
+            out.writeInt(persisted);
+            out.writeLong(textFile.length());
+            out.writeLong(textFile.lastModified());
+            for (int[] column : result.columns) {
+                for (int i = 0; i < result.rows; ++i) {
+                    out.writeInt(column[i]);
+                }
+            }
+        }
+        if (colFile.exists() && !colFile.delete()
+                || !tmpFile.renameTo(colFile)) {
+            throw new IOException("cannot create " + colFile);
+        }
+    }
+}
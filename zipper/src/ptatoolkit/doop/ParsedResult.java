@@ -0,0 +1,104 @@
+package ptatoolkit.doop;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The results of a query parsed from its text dump. Each tuple element
+ * is stored as its symbol in the given symbol table, column by column.
+ */
+class ParsedResult {
+
+    final Query query;
+    final SymbolTable symbols;
+    final int arity;
+    final int rows;
+    final int[][] columns;
+
+    private ParsedResult(Query query, SymbolTable symbols,
+                         int arity, int rows, int[][] columns) {
+        this.query = query;
+        this.symbols = symbols;
+        this.arity = arity;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Parse the text dump of query, and intern the tuple elements
+     * into symbols in the order of their first occurrences.
+     */
+    static ParsedResult parse(Query query, File textFile, SymbolTable symbols) {
+        return parse(query, new DumpTokenizer(query, textFile, symbols), symbols);
+    }
+
+    /**
+     * Parse the results of query from a text stream, which is closed
+     * after parsing.
+     */
+    static ParsedResult parse(Query query, InputStream text, SymbolTable symbols) {
+        return parse(query, new DumpTokenizer(query, text, symbols), symbols);
+    }
+
+    private static ParsedResult parse(Query query, DumpTokenizer tokenizer,
+                                      SymbolTable symbols) {
+        int arity = 0;
+        int rows = 0;
+        int[][] columns = new int[0][];
+        try (DumpTokenizer itr = tokenizer) {
+            while (itr.hasNext()) {
+                int[] tuple = itr.next();
+                if (rows == 0) {
+                    arity = tuple.length;
+                    columns = new int[arity][1024];
+                } else if (tuple.length != arity) {
+                    throw new RuntimeException("Query " + query +
+                            " fails, caused by malformed tuple at line " +
+                            itr.nrLines());
+                }
+                if (rows == columns[0].length) {
+                    for (int i = 0; i < arity; ++i) {
+                        columns[i] = Arrays.copyOf(columns[i], rows * 2);
+                    }
+                }
+                for (int i = 0; i < arity; ++i) {
+                    columns[i][rows] = tuple[i];
+                }
+                ++rows;
+            }
+        }
+        return new ParsedResult(query, symbols, arity, rows, columns);
+    }
+
+    /**
+     * Translate this result to the symbols of target. The symbols of
+     * this result are interned into target in ascending order under
+     * one lock of target, so if this result is parsed with a fresh
+     * symbol table, target ends up the same as if the result were
+     * parsed with target directly.
+     */
+    ParsedResult remap(SymbolTable target) {
+        if (target == symbols) {
+            return this;
+        }
+        int[] map = target.internAll(symbols);
+        int[][] newColumns = new int[arity][rows];
+        for (int i = 0; i < arity; ++i) {
+            for (int row = 0; row < rows; ++row) {
+                newColumns[i][row] = map[columns[i][row]];
+            }
+        }
+        return new ParsedResult(query, target, arity, rows, newColumns);
+    }
+
+    Iterator<int[]> iterator() {
+        IntBuffer[] buffers = new IntBuffer[arity];
+        for (int i = 0; i < arity; ++i) {
+            buffers[i] = IntBuffer.wrap(columns[i], 0, rows);
+        }
+        return new ColumnarResultItr(query, buffers, rows);
+    }
+}
@@ -0,0 +1,24 @@
+package ptatoolkit.doop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An engine which evaluates the queries on the results of Doop. An
+ * engine is a session, in which queries may be evaluated concurrently,
+ * until it is closed.
+ */
+public interface QueryEngine extends Closeable {
+
+    /**
+     * Evaluate given query.
+     * @return the results of query as a text dump, i.e., a tuple per
+     * line whose elements are separated by ", ". Closing the stream
+     * reports the failure of the evaluation, if any.
+     */
+    InputStream evaluate(Query query) throws IOException;
+
+    @Override
+    void close();
+}
@@ -1,6 +1,7 @@
 package ptatoolkit.doop;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
@@ -11,9 +12,10 @@ import java.util.NoSuchElementException;
 
 /**
  * Iterator on the result file of given query. Each "next" element
- * corresponds to a line of the result file.
+ * corresponds to a line of the result file. The file is closed when
+ * the iteration completes or when the iterator is closed.
  */
-class QueryResultItr implements Iterator<List<String>> {
+class QueryResultItr implements Iterator<List<String>>, Closeable {
 
     private static final String SEP = ", ";
 
@@ -27,9 +29,13 @@ class QueryResultItr implements Iterator<List<String>> {
             reader = new BufferedReader(new FileReader(resultFile));
             nextLine = reader.readLine();
         } catch (IOException e) {
+            close();
             throw new RuntimeException("Query " + query + " fails, " +
                     "caused by " + e.getMessage());
         }
+        if (nextLine == null) {
+            close();
+        }
     }
 
     @Override
@@ -44,9 +50,13 @@ class QueryResultItr implements Iterator<List<String>> {
             try {
                 nextLine = reader.readLine();
             } catch (IOException e) {
+                close();
                 throw new RuntimeException("Query " + query + " fails, " +
                         "caused by " + e.getMessage());
             }
+            if (nextLine == null) {
+                close();
+            }
             return line2list(line);
         } else {
             throw new NoSuchElementException(query.name());
@@ -54,17 +64,15 @@ class QueryResultItr implements Iterator<List<String>> {
     }
 
     @Override
-    protected void finalize() throws Throwable {
-        try {
-            if(reader != null) {
-                try {
-                    reader.close();
-                } catch (Exception e) {
-                }
+    public void close() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // nothing to release
             }
             reader = null;
-        } finally {
-            super.finalize();
+            nextLine = null;
         }
     }
 
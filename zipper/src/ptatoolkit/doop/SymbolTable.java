@@ -0,0 +1,226 @@
+package ptatoolkit.doop;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A table that interns the names and signatures of Doop elements.
+ *
+ * Each distinct name is assigned a dense int ID (its symbol), and its
+ * text is stored only once, as UTF-8 bytes in a paged byte arena.
+ * Strings are rebuilt on demand by {@link #text(int)}, so that the
+ * element factories need not retain millions of long signatures.
+ *
+ * Interning is synchronized; reading the text of a published symbol
+ * is lock-free. Threads which parse in parallel intern into tables of
+ * their own, which are merged into the shared table by
+ * {@link #internAll(SymbolTable)} under one lock per table, so the
+ * lock of the shared table is not taken per token.
+ */
+public class SymbolTable {
+
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private volatile byte[][] pages = new byte[16][];
+    private int nrPages = 0;
+    private int pageUsed = 0;
+    // starts[i] encodes the page and offset of symbol i
+    private volatile int[] starts = new int[1024];
+    private volatile int[] lengths = new int[1024];
+    private int[] hashes = new int[1024];
+    // open-addressing table of (symbol + 1), 0 means empty slot
+    private int[] table = new int[2048];
+    private volatile int size = 0;
+
+    /**
+     * @return the symbol of s. If s has not been interned,
+     * a new symbol is created for it.
+     */
+    public int intern(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return the symbol of the UTF-8 text bytes[from, to).
+     * If the text has not been interned, a new symbol is created for it.
+     */
+    public synchronized int intern(byte[] bytes, int from, int to) {
+        return intern(bytes, from, to, hash(bytes, from, to));
+    }
+
+    /**
+     * Intern the symbols of source into this table in ascending order,
+     * so this table ends up the same as if the texts were interned into
+     * it directly. source must not be modified meanwhile.
+     * @return the symbol in this table of each symbol of source.
+     */
+    public synchronized int[] internAll(SymbolTable source) {
+        int[] map = new int[source.size];
+        for (int symbol = 0; symbol < map.length; ++symbol) {
+            int start = source.starts[symbol];
+            int offset = start & PAGE_MASK;
+            map[symbol] = intern(source.pages[start >>> PAGE_BITS], offset,
+                    offset + source.lengths[symbol], source.hashes[symbol]);
+        }
+        return map;
+    }
+
+    private int intern(byte[] bytes, int from, int to, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            int symbol = entry - 1;
+            if (hashes[symbol] == hash && equals(symbol, bytes, from, to)) {
+                return symbol;
+            }
+        }
+        int symbol = add(bytes, from, to, hash);
+        table[slot] = symbol + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return symbol;
+    }
+
+    /**
+     * @return the symbol of s, or -1 if s has not been interned.
+     */
+    public synchronized int lookup(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        int mask = table.length - 1;
+        for (int slot = hash & mask, entry;
+             (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            int symbol = entry - 1;
+            if (hashes[symbol] == hash && equals(symbol, bytes, 0, bytes.length)) {
+                return symbol;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the text of given symbol.
+     */
+    public String text(int symbol) {
+        int start = starts[symbol];
+        return new String(pages[start >>> PAGE_BITS], start & PAGE_MASK,
+                lengths[symbol], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the UTF-8 bytes of given symbol.
+     */
+    public byte[] bytes(int symbol) {
+        int start = starts[symbol];
+        int offset = start & PAGE_MASK;
+        return Arrays.copyOfRange(pages[start >>> PAGE_BITS],
+                offset, offset + lengths[symbol]);
+    }
+
+    /**
+     * @return whether the text of given symbol starts with prefix.
+     */
+    public boolean startsWith(int symbol, String prefix) {
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+        if (lengths[symbol] < p.length) {
+            return false;
+        }
+        int start = starts[symbol];
+        byte[] page = pages[start >>> PAGE_BITS];
+        int offset = start & PAGE_MASK;
+        for (int i = 0; i < p.length; ++i) {
+            if (page[offset + i] != p[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of symbols in this table.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int add(byte[] bytes, int from, int to, int hash) {
+        int length = to - from;
+        if (size == starts.length) {
+            int capacity = size * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+        }
+        if (nrPages == 0 || pageUsed + length > PAGE_SIZE) {
+            newPage(length);
+        }
+        int page = nrPages - 1;
+        System.arraycopy(bytes, from, pages[page], pageUsed, length);
+        int symbol = size;
+        starts[symbol] = (page << PAGE_BITS) | pageUsed;
+        lengths[symbol] = length;
+        hashes[symbol] = hash;
+        pageUsed += length;
+        size = symbol + 1;
+        return symbol;
+    }
+
+    private void newPage(int minLength) {
+        if (minLength > PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Symbol longer than " + PAGE_SIZE + " bytes");
+        }
+        if (nrPages == pages.length) {
+            pages = Arrays.copyOf(pages, nrPages * 2);
+        }
+        if (nrPages == 1 << (Integer.SIZE - 1 - PAGE_BITS)) {
+            throw new IllegalStateException("Symbol table is full");
+        }
+        byte[][] ps = pages;
+        ps[nrPages++] = new byte[PAGE_SIZE];
+        pages = ps; // publish the new page
+        pageUsed = 0;
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+        for (int symbol = 0; symbol < size; ++symbol) {
+            int slot = hashes[symbol] & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = symbol + 1;
+        }
+        table = newTable;
+    }
+
+    private boolean equals(int symbol, byte[] bytes, int from, int to) {
+        int length = to - from;
+        if (lengths[symbol] != length) {
+            return false;
+        }
+        int start = starts[symbol];
+        byte[] page = pages[start >>> PAGE_BITS];
+        int offset = start & PAGE_MASK;
+        for (int i = 0; i < length; ++i) {
+            if (page[offset + i] != bytes[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; ++i) {
+            h = 31 * h + bytes[i];
+        }
+        // spread the bits as HashMap does
+        return h ^ (h >>> 16);
+    }
+}
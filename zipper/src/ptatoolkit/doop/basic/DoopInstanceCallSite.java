@@ -1,5 +1,6 @@
 package ptatoolkit.doop.basic;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.pta.basic.InstanceCallSite;
 import ptatoolkit.pta.basic.Variable;
 
@@ -7,12 +8,15 @@ import java.util.Collection;
 
 public class DoopInstanceCallSite extends InstanceCallSite {
 
-    private final String callSite;
+    private final SymbolTable symbols;
+    private final int symbol;
     private final int id;
 
-    public DoopInstanceCallSite(String callSite, Variable receiver, Collection<Variable> args, int id) {
+    public DoopInstanceCallSite(SymbolTable symbols, int symbol, Variable receiver,
+                                Collection<Variable> args, int id) {
         super(receiver, args);
-        this.callSite = callSite;
+        this.symbols = symbols;
+        this.symbol = symbol;
         this.id = id;
     }
 
@@ -23,7 +27,7 @@ public class DoopInstanceCallSite extends InstanceCallSite {
 
     @Override
     public String toString() {
-        return callSite;
+        return symbols.text(symbol);
     }
 
 }
@@ -1,5 +1,6 @@
 package ptatoolkit.doop.basic;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.pta.basic.InstanceMethod;
 import ptatoolkit.pta.basic.Variable;
 
@@ -10,16 +11,18 @@ import java.util.List;
 
 public class DoopInstanceMethod extends InstanceMethod {
 
-    private final String sig;
+    private final SymbolTable symbols;
+    private final int symbol;
     private final int id;
     private final List<Variable> allParams;
 
     public DoopInstanceMethod(
-            String sig, Variable thisVar, Collection<Variable> params,
+            SymbolTable symbols, int symbol, Variable thisVar, Collection<Variable> params,
             Collection<Variable> retVars, boolean isPrivate,
             int id) {
         super(thisVar, params, retVars, isPrivate);
-        this.sig = sig;
+        this.symbols = symbols;
+        this.symbol = symbol;
         this.id = id;
         if (params != null) {
             allParams = new ArrayList<>(4);
@@ -37,7 +40,7 @@ public class DoopInstanceMethod extends InstanceMethod {
 
     @Override
     public String toString() {
-        return sig;
+        return symbols.text(symbol);
     }
 
     @Override
@@ -1,20 +1,20 @@
 package ptatoolkit.doop.basic;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Type;
 
 public class DoopObj extends Obj {
 
-	private final String objName;
+	private final SymbolTable symbols;
+	private final int symbol;
 	private final int id;
-	private final String rep;
 	
-	public DoopObj(String objName, Type type, int id) {
+	public DoopObj(SymbolTable symbols, int symbol, Type type, int id) {
 		super(type);
-		this.objName = objName;
+		this.symbols = symbols;
+		this.symbol = symbol;
 		this.id = id;
-		//this.rep = String.format("%s(%d)", objName, id);
-		this.rep = objName;
 	}
 	
 	@Override
@@ -24,6 +24,6 @@ public class DoopObj extends Obj {
 	
 	@Override
 	public String toString() {
-		return rep;
+		return symbols.text(symbol);
 	}
 }
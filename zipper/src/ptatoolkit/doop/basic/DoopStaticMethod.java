@@ -1,5 +1,6 @@
 package ptatoolkit.doop.basic;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.pta.basic.StaticMethod;
 import ptatoolkit.pta.basic.Variable;
 
@@ -7,16 +8,18 @@ import java.util.Collection;
 
 public class DoopStaticMethod extends StaticMethod {
 
-    private final String sig;
+    private final SymbolTable symbols;
+    private final int symbol;
     private final int id;
 
-    public DoopStaticMethod(String sig,
+    public DoopStaticMethod(SymbolTable symbols, int symbol,
                             Collection<Variable> params,
                             Collection<Variable> retVars,
                             boolean isPrivate,
                             int id) {
         super(params, retVars, isPrivate);
-        this.sig = sig;
+        this.symbols = symbols;
+        this.symbol = symbol;
         this.id = id;
     }
 
@@ -27,7 +30,7 @@ public class DoopStaticMethod extends StaticMethod {
 
     @Override
     public String toString() {
-        return sig;
+        return symbols.text(symbol);
     }
 
 }
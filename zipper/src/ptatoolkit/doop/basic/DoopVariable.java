@@ -1,14 +1,17 @@
 package ptatoolkit.doop.basic;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.pta.basic.Variable;
 
 public class DoopVariable extends Variable {
 
-    private final String varName;
+    private final SymbolTable symbols;
+    private final int symbol;
     private final int id;
 
-    public DoopVariable(String varName, int id) {
-        this.varName = varName;
+    public DoopVariable(SymbolTable symbols, int symbol, int id) {
+        this.symbols = symbols;
+        this.symbol = symbol;
         this.id = id;
     }
 
@@ -19,7 +22,7 @@ public class DoopVariable extends Variable {
 
     @Override
     public String toString() {
-        return varName;
+        return symbols.text(symbol);
     }
 
 }
@@ -1,30 +1,52 @@
 package ptatoolkit.doop.factory;
 
+import ptatoolkit.doop.SymbolTable;
+import ptatoolkit.util.IntIntMap;
+
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
 
 public abstract class ElementFactory<T> {
 
-	private Map<String, T> name2elem = new HashMap<>();
+	protected final SymbolTable symbols;
+	private final IntIntMap symbol2index = new IntIntMap(1024);
+	private final List<T> elems = new ArrayList<>();
 	protected int count = 0;
-	
+
+	protected ElementFactory(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
 	public T get(String name) {
-		T item = name2elem.get(name);
-		if (item == null) {
-			item = createElement(name);
-			name2elem.put(name, item);
+		return get(symbols.intern(name));
+	}
+
+	/**
+	 * @param symbol the symbol of the element name
+	 * @return the element of given name.
+	 * If the element does not exist, it will be created.
+	 */
+	public T get(int symbol) {
+		int index = symbol2index.get(symbol);
+		if (index == IntIntMap.ABSENT) {
+			T item = createElement(symbol);
+			index = elems.size();
+			elems.add(item);
+			symbol2index.put(symbol, index);
 		}
-		return item;
+		return elems.get(index);
 	}
 
 	public boolean has(String name) {
-		return name2elem.containsKey(name);
+		int symbol = symbols.lookup(name);
+		return symbol >= 0 && symbol2index.containsKey(symbol);
 	}
 
-	protected abstract T createElement(String name);
+	protected abstract T createElement(int symbol);
 
 	public Collection<T> getAllElements() {
-		return name2elem.values();
+		return Collections.unmodifiableList(elems);
 	}
 }
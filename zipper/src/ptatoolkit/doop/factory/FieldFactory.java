@@ -1,13 +1,18 @@
 package ptatoolkit.doop.factory;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.doop.basic.DoopField;
 import ptatoolkit.pta.basic.Field;
 
 public class FieldFactory extends ElementFactory<Field> {
 
+	public FieldFactory(SymbolTable symbols) {
+		super(symbols);
+	}
+
 	@Override
-	protected Field createElement(String name) {
-		return new DoopField(name, ++count);
+	protected Field createElement(int symbol) {
+		return new DoopField(symbols.text(symbol), ++count);
 	}
 	
 }
@@ -8,41 +8,38 @@ import ptatoolkit.pta.basic.InstanceCallSite;
 
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 public class InstanceCallSiteFactory extends ElementFactory<InstanceCallSite> {
 
-    private final Map<String, Variable> call2recv = new HashMap<>();
-    private final Map<String, Set<Variable>> call2args = new HashMap<>();
+    // The following maps are keyed by the symbols of call sites
+    private final SymbolMap<Variable> call2recv = new SymbolMap<>();
+    private final SymbolMap<Set<Variable>> call2args = new SymbolMap<>();
 
     public InstanceCallSiteFactory(DataBase db, VariableFactory varFactory) {
-        db.query(Query.INST_CALL_RECV).forEachRemaining(list -> {
-            String call = list.get(0);
-            Variable thisVar = varFactory.get(list.get(1));
+        super(db.symbols());
+        db.querySymbols(Query.INST_CALL_RECV).forEachRemaining(tuple -> {
+            int call = tuple[0];
+            Variable thisVar = varFactory.get(tuple[1]);
             call2recv.put(call, thisVar);
         });
 
-        db.query(Query.INST_CALL_ARGS).forEachRemaining(list -> {
-            String call = list.get(0);
-            Variable arg = varFactory.get(list.get(1));
-            if (!call2args.containsKey(call)) {
-                call2args.put(call, new HashSet<>(4));
-            }
-            call2args.get(call).add(arg);
+        db.querySymbols(Query.INST_CALL_ARGS).forEachRemaining(tuple -> {
+            int call = tuple[0];
+            Variable arg = varFactory.get(tuple[1]);
+            call2args.computeIfAbsent(call, () -> new HashSet<>(4)).add(arg);
         });
     }
 
     @Override
-    protected InstanceCallSite createElement(String callSite) {
+    protected InstanceCallSite createElement(int callSite) {
         Variable recv = call2recv.get(callSite);
         Set<Variable> args = call2args.get(callSite);
         if (args == null) {
             args = Collections.emptySet();
         }
-        return new DoopInstanceCallSite(callSite, recv, args, ++count);
+        return new DoopInstanceCallSite(symbols, callSite, recv, args, ++count);
     }
 
 }
@@ -7,55 +7,53 @@ import ptatoolkit.doop.basic.DoopStaticMethod;
 import ptatoolkit.pta.basic.Method;
 import ptatoolkit.pta.basic.Variable;
 
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 public class MethodFactory extends ElementFactory<Method> {
 
-    private final Map<String, Variable> sig2this = new HashMap<>();
-    private final Map<String, Set<Variable>> sig2params = new HashMap<>();
-    private final Map<String, Set<Variable>> sig2ret = new HashMap<>();
-    private final Set<String> privateMethods = new HashSet<>();
+    private static final String PRIVATE = "private";
+
+    // The following maps are keyed by the symbols of method signatures
+    private final SymbolMap<Variable> sig2this = new SymbolMap<>();
+    private final SymbolMap<Set<Variable>> sig2params = new SymbolMap<>();
+    private final SymbolMap<Set<Variable>> sig2ret = new SymbolMap<>();
+    private final BitSet privateMethods = new BitSet();
 
     public MethodFactory(DataBase db, VariableFactory varFactory) {
-        db.query(Query.THIS_VAR).forEachRemaining(list -> {
-            String sig = list.get(0);
-            Variable thisVar = varFactory.get(list.get(1));
+        super(db.symbols());
+        db.querySymbols(Query.THIS_VAR).forEachRemaining(tuple -> {
+            int sig = tuple[0];
+            Variable thisVar = varFactory.get(tuple[1]);
             sig2this.put(sig, thisVar);
         });
 
-        db.query(Query.PARAMS).forEachRemaining(list -> {
-            String sig = list.get(0);
-            Variable param = varFactory.get(list.get(1));
-            if (!sig2params.containsKey(sig)) {
-                sig2params.put(sig, new HashSet<>(4));
-            }
-            sig2params.get(sig).add(param);
+        db.querySymbols(Query.PARAMS).forEachRemaining(tuple -> {
+            int sig = tuple[0];
+            Variable param = varFactory.get(tuple[1]);
+            sig2params.computeIfAbsent(sig, () -> new HashSet<>(4)).add(param);
         });
 
-        db.query(Query.RET_VARS).forEachRemaining(list -> {
-            String sig = list.get(0);
-            Variable ret = varFactory.get(list.get(1));
-            if (!sig2ret.containsKey(sig)) {
-                sig2ret.put(sig, new HashSet<>(4));
-            }
-            sig2ret.get(sig).add(ret);
+        db.querySymbols(Query.RET_VARS).forEachRemaining(tuple -> {
+            int sig = tuple[0];
+            Variable ret = varFactory.get(tuple[1]);
+            sig2ret.computeIfAbsent(sig, () -> new HashSet<>(4)).add(ret);
         });
 
-        db.query(Query.METHOD_MODIFIER).forEachRemaining(list -> {
-            String sig = list.get(0);
-            String mod = list.get(1);
-            if (mod.equals("private")) {
-                privateMethods.add(sig);
+        int privateMod = symbols.intern(PRIVATE);
+        db.querySymbols(Query.METHOD_MODIFIER).forEachRemaining(tuple -> {
+            int sig = tuple[0];
+            int mod = tuple[1];
+            if (mod == privateMod) {
+                privateMethods.set(sig);
             }
         });
     }
 
     @Override
-    protected Method createElement(String sig) {
+    protected Method createElement(int sig) {
         Variable thisVar = sig2this.get(sig);
         Set<Variable> params = sig2params.get(sig);
         if (params == null) {
@@ -65,12 +63,12 @@ public class MethodFactory extends ElementFactory<Method> {
         if (retVars == null) {
             retVars = Collections.emptySet();
         }
-        boolean isPrivate = privateMethods.contains(sig);
+        boolean isPrivate = privateMethods.get(sig);
         if (thisVar != null) { // sig represents an instance method
-            return new DoopInstanceMethod(sig, thisVar, params, retVars,
+            return new DoopInstanceMethod(symbols, sig, thisVar, params, retVars,
                     isPrivate, ++count);
         } else { // sig represents a static method
-            return new DoopStaticMethod(sig, params, retVars,
+            return new DoopStaticMethod(symbols, sig, params, retVars,
                     isPrivate, ++count);
         }
     }
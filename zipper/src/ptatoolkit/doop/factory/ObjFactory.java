@@ -1,8 +1,5 @@
 package ptatoolkit.doop.factory;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import ptatoolkit.doop.DataBase;
 import ptatoolkit.doop.Query;
 import ptatoolkit.doop.basic.DoopObj;
@@ -12,29 +9,32 @@ import ptatoolkit.pta.basic.Type;
 public class ObjFactory extends ElementFactory<Obj> {
 
 	private static final String CLASS_TYPE = "java.lang.Class";
+	private static final String CLASS_OBJECT_PREFIX = "<class ";
 
-	private final Map<String, Type> typeMap = new HashMap<>();;
+	// keyed by the symbols of object names
+	private final SymbolMap<Type> typeMap = new SymbolMap<>();
 	private final TypeFactory typeFactory;
 	
 	public ObjFactory(DataBase db, TypeFactory typeFactory) {
+		super(db.symbols());
 		this.typeFactory = typeFactory;
-		db.query(Query.OBJ_TYPE).forEachRemaining(list -> {
-			String objName = list.get(0);
-			Type type = typeFactory.get(list.get(1));
+		db.querySymbols(Query.OBJ_TYPE).forEachRemaining(tuple -> {
+			int objName = tuple[0];
+			Type type = typeFactory.get(tuple[1]);
 			typeMap.put(objName, type);
 		});
 	}
 	
 	@Override
-	protected Obj createElement(String name) {
+	protected Obj createElement(int symbol) {
 		Type type;
-		if (name.startsWith("<class ")) {
+		if (symbols.startsWith(symbol, CLASS_OBJECT_PREFIX)) {
 			// Handle special Class objects
 			type = typeFactory.get(CLASS_TYPE);
 		} else {
-			type = typeMap.get(name);
+			type = typeMap.get(symbol);
 		}
-		return new DoopObj(name, type, ++count);
+		return new DoopObj(symbols, symbol, type, ++count);
 	}
 
 }
@@ -0,0 +1,52 @@
+package ptatoolkit.doop.factory;
+
+import ptatoolkit.util.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A map from symbols to values. Like the elements of {@link ElementFactory},
+ * the values are kept in a list, and the symbols are mapped to their
+ * indexes in the list by an IntIntMap, which avoids boxing the symbols.
+ * @param <V>
+ */
+class SymbolMap<V> {
+
+	private final IntIntMap symbol2index = new IntIntMap(1024);
+	private final List<V> values = new ArrayList<>();
+
+	/**
+	 * @return the value of symbol, or null if symbol is absent.
+	 */
+	V get(int symbol) {
+		int index = symbol2index.get(symbol);
+		return index != IntIntMap.ABSENT ? values.get(index) : null;
+	}
+
+	void put(int symbol, V value) {
+		int index = symbol2index.get(symbol);
+		if (index == IntIntMap.ABSENT) {
+			symbol2index.put(symbol, values.size());
+			values.add(value);
+		} else {
+			values.set(index, value);
+		}
+	}
+
+	/**
+	 * @return the value of symbol, which is given by supplier
+	 * if symbol is absent.
+	 */
+	V computeIfAbsent(int symbol, Supplier<V> supplier) {
+		int index = symbol2index.get(symbol);
+		if (index == IntIntMap.ABSENT) {
+			V value = supplier.get();
+			symbol2index.put(symbol, values.size());
+			values.add(value);
+			return value;
+		}
+		return values.get(index);
+	}
+}
@@ -1,12 +1,17 @@
 package ptatoolkit.doop.factory;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.doop.basic.DoopType;
 import ptatoolkit.pta.basic.Type;
 
 public class TypeFactory extends ElementFactory<Type> {
 
+    public TypeFactory(SymbolTable symbols) {
+        super(symbols);
+    }
+
     @Override
-    protected Type createElement(String name) {
-        return new DoopType(name, ++count);
+    protected Type createElement(int symbol) {
+        return new DoopType(symbols.text(symbol), ++count);
     }
 }
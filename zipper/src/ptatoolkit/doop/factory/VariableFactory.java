@@ -1,13 +1,18 @@
 package ptatoolkit.doop.factory;
 
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.doop.basic.DoopVariable;
 import ptatoolkit.pta.basic.Variable;
 
 public class VariableFactory extends ElementFactory<Variable> {
 
+    public VariableFactory(SymbolTable symbols) {
+        super(symbols);
+    }
+
     @Override
-    protected Variable createElement(String name) {
-        return new DoopVariable(name, ++count);
+    protected Variable createElement(int symbol) {
+        return new DoopVariable(symbols, symbol, ++count);
     }
 
 }
@@ -2,7 +2,7 @@ package ptatoolkit.pta.basic;
 
 import java.util.Collection;
 
-public abstract class CallSite extends AttributeElement {
+public abstract class CallSite extends BasicElement {
 
     private final Collection<Variable> arguments;
 
@@ -5,7 +5,7 @@ import java.util.Collection;
 /**
  * The abstraction of method.
  */
-public abstract class Method extends AttributeElement {
+public abstract class Method extends BasicElement {
 
 	private final Collection<Variable> params;
 	private final Collection<Variable> retVars;
@@ -6,7 +6,7 @@ package ptatoolkit.pta.basic;
  * it is named "Obj".
  *
  */
-public abstract class Obj extends AttributeElement {
+public abstract class Obj extends BasicElement {
 
 	private final Type type;
 
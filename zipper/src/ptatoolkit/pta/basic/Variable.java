@@ -3,5 +3,5 @@ package ptatoolkit.pta.basic;
 /**
  * The abstraction of variable.
  */
-public abstract class Variable extends AttributeElement {
+public abstract class Variable extends BasicElement {
 }
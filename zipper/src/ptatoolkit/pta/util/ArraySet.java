@@ -0,0 +1,76 @@
+package ptatoolkit.pta.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of numberable elements, which is a slice of an
+ * array sorted by the IDs of the elements.
+ * @param <E>
+ */
+public class ArraySet<E extends Numberable> extends AbstractSet<E> {
+
+    private final Object[] elems;
+    private final int from;
+    private final int to;
+
+    ArraySet(Object[] elems, int from, int to) {
+        this.elems = elems;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Numberable)) {
+            return false;
+        }
+        int id = ((Numberable) o).getID();
+        int low = from, high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midID = ((Numberable) elems[mid]).getID();
+            if (midID < id) {
+                low = mid + 1;
+            } else if (midID > id) {
+                high = mid - 1;
+            } else {
+                return elems[mid] == o;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < to;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (next >= to) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elems[next++];
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return from == to;
+    }
+}
@@ -0,0 +1,98 @@
+package ptatoolkit.pta.util;
+
+import ptatoolkit.util.CompressedBitSet;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable set of numberable elements, which is a view of
+ * a compressed bitmap over the IDs of the elements.
+ * @param <E>
+ */
+public class BitmapSet<E extends Numberable> extends AbstractSet<E> {
+
+    private final CompressedBitSet bits;
+    // maps an ID to its element
+    private final IntFunction<E> elemOf;
+    // sum of the hash codes (i.e., IDs) of the elements as required
+    // by Set, which is computed on demand like String.hash
+    private int hashCode = 0;
+
+    public BitmapSet(CompressedBitSet bits, IntFunction<E> elemOf) {
+        this.bits = bits;
+        this.elemOf = elemOf;
+    }
+
+    public CompressedBitSet getBits() {
+        return bits;
+    }
+
+    /**
+     * @return whether this set and other have common elements.
+     */
+    public boolean intersects(BitmapSet<E> other) {
+        return bits.intersects(other.bits);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Numberable)) {
+            return false;
+        }
+        int id = ((Numberable) o).getID();
+        return bits.contains(id) && elemOf.apply(id) == o;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        PrimitiveIterator.OfInt ids = bits.iterator();
+        return new Iterator<E>() {
+
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return elemOf.apply(ids.nextInt());
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = hashCode;
+        if (hash == 0) {
+            PrimitiveIterator.OfInt ids = bits.iterator();
+            while (ids.hasNext()) {
+                hash += ids.nextInt();
+            }
+            hashCode = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof BitmapSet) {
+            BitmapSet<?> other = (BitmapSet<?>) o;
+            return elemOf == other.elemOf ? bits.equals(other.bits)
+                    : super.equals(o);
+        }
+        return super.equals(o);
+    }
+}
@@ -0,0 +1,98 @@
+package ptatoolkit.pta.util;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable set of numberable elements, which is a view of an
+ * uncompressed bitmap over the IDs of the elements. Unlike {@link BitmapSet},
+ * it suits the elements with dense IDs, e.g., methods, as the bitmaps
+ * are united and compared word by word.
+ *
+ * The bitmap must not be modified after it is wrapped.
+ * @param <E>
+ */
+public class DenseBitmapSet<E extends Numberable> extends AbstractSet<E> {
+
+    private final BitSet bits;
+    // maps an ID to its element
+    private final IntFunction<E> elemOf;
+    private final int size;
+    // sum of the hash codes (i.e., IDs) of the elements, as required by Set
+    private final int hashCode;
+
+    public DenseBitmapSet(BitSet bits, IntFunction<E> elemOf) {
+        this.bits = bits;
+        this.elemOf = elemOf;
+        this.size = bits.cardinality();
+        int hash = 0;
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            hash += id;
+        }
+        this.hashCode = hash;
+    }
+
+    public BitSet getBits() {
+        return bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Numberable)) {
+            return false;
+        }
+        int id = ((Numberable) o).getID();
+        return bits.get(id) && elemOf.apply(id) == o;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public E next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                E elem = elemOf.apply(next);
+                next = bits.nextSetBit(next + 1);
+                return elem;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof DenseBitmapSet) {
+            DenseBitmapSet<?> other = (DenseBitmapSet<?>) o;
+            return elemOf == other.elemOf ? bits.equals(other.bits)
+                    : super.equals(o);
+        }
+        return super.equals(o);
+    }
+}
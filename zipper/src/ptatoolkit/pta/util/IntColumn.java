@@ -0,0 +1,42 @@
+package ptatoolkit.pta.util;
+
+import java.util.Arrays;
+
+/**
+ * An int-valued attribute of numberable owners, stored in
+ * an int array indexed by the IDs of the owners.
+ * The default value of every owner is 0.
+ *
+ * Like {@link ValueColumn}, the column is not synchronized: it is
+ * written (including {@link #increase(Numberable)}) by a single thread,
+ * and may only be read by many threads after it is filled.
+ */
+public class IntColumn {
+
+    private int[] values = new int[64];
+
+    public int get(Numberable owner) {
+        int id = owner.getID();
+        return id < values.length ? values[id] : 0;
+    }
+
+    public void set(Numberable owner, int value) {
+        ensureCapacity(owner.getID());
+        values[owner.getID()] = value;
+    }
+
+    /**
+     * Increase the value of owner by one and then return it.
+     * @return the increased value.
+     */
+    public int increase(Numberable owner) {
+        ensureCapacity(owner.getID());
+        return ++values[owner.getID()];
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ptatoolkit.pta.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * A set-valued attribute of numberable elements, stored in
+ * compressed sparse row (CSR) form and indexed by the IDs of the
+ * owners. Elements are added during loading, after which the
+ * column is frozen and becomes read-only.
+ * @param <E>
+ */
+public class SetColumn<E extends Numberable> {
+
+    private static final Object[] EMPTY = new Object[0];
+    private static final Comparator<Object> BY_ID =
+            Comparator.comparingInt(o -> ((Numberable) o).getID());
+
+    // (owner, element) pairs added before freezing
+    private int[] owners = new int[64];
+    private Object[] added = new Object[64];
+    private int nrAdded = 0;
+
+    // offsets[id] .. offsets[id + 1] is the range of owner id in elems
+    private int[] offsets;
+    private Object[] elems;
+
+    public void add(Numberable owner, E elem) {
+        if (isFrozen()) {
+            throw new IllegalStateException("Column has been frozen");
+        }
+        if (nrAdded == owners.length) {
+            owners = Arrays.copyOf(owners, nrAdded * 2);
+            added = Arrays.copyOf(added, nrAdded * 2);
+        }
+        owners[nrAdded] = owner.getID();
+        added[nrAdded] = elem;
+        ++nrAdded;
+    }
+
+    /**
+     * Build the CSR arrays from the added elements. Duplicate
+     * elements of an owner are removed.
+     */
+    public void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        int maxOwner = -1;
+        for (int i = 0; i < nrAdded; ++i) {
+            maxOwner = Math.max(maxOwner, owners[i]);
+        }
+        // counting sort by owner
+        int[] starts = new int[maxOwner + 2];
+        for (int i = 0; i < nrAdded; ++i) {
+            ++starts[owners[i] + 1];
+        }
+        for (int i = 0; i <= maxOwner; ++i) {
+            starts[i + 1] += starts[i];
+        }
+        Object[] sorted = new Object[nrAdded];
+        int[] next = Arrays.copyOf(starts, maxOwner + 1);
+        for (int i = 0; i < nrAdded; ++i) {
+            sorted[next[owners[i]]++] = added[i];
+        }
+        owners = null;
+        added = null;
+        // sort each row by element ID and remove duplicates in place
+        offsets = new int[maxOwner + 2];
+        int size = 0;
+        for (int owner = 0; owner <= maxOwner; ++owner) {
+            int from = starts[owner], to = starts[owner + 1];
+            Arrays.sort(sorted, from, to, BY_ID);
+            offsets[owner] = size;
+            for (int i = from; i < to; ++i) {
+                if (i == from || sorted[i] != sorted[i - 1]) {
+                    sorted[size++] = sorted[i];
+                }
+            }
+        }
+        offsets[maxOwner + 1] = size;
+        elems = size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    public boolean isFrozen() {
+        return offsets != null;
+    }
+
+    /**
+     * @return the elements of owner. If owner has no elements,
+     * return an empty set.
+     */
+    public Set<E> get(Numberable owner) {
+        if (!isFrozen()) {
+            throw new IllegalStateException("Column has not been frozen");
+        }
+        int id = owner.getID();
+        if (id + 1 >= offsets.length) {
+            return new ArraySet<>(EMPTY, 0, 0);
+        }
+        return new ArraySet<>(elems, offsets[id], offsets[id + 1]);
+    }
+}
@@ -0,0 +1,39 @@
+package ptatoolkit.pta.util;
+
+import java.util.Arrays;
+
+/**
+ * A single-valued attribute of numberable owners, stored in
+ * an array indexed by the IDs of the owners.
+ *
+ * The column is not synchronized. The values are set by a single
+ * thread, e.g., during loading, after which the column may be read by
+ * many threads, provided that it is published to them safely, e.g., by
+ * starting or submitting the tasks which read it after it is filled.
+ * @param <V>
+ */
+public class ValueColumn<V> {
+
+    private Object[] values = new Object[64];
+
+    /**
+     * @return the value of owner, or null if owner has no value.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Numberable owner) {
+        int id = owner.getID();
+        return id < values.length ? (V) values[id] : null;
+    }
+
+    public boolean has(Numberable owner) {
+        return get(owner) != null;
+    }
+
+    public void set(Numberable owner, V value) {
+        int id = owner.getID();
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+        }
+        values[id] = value;
+    }
+}
@@ -0,0 +1,49 @@
+package ptatoolkit.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size bit set whose bits can be set by multiple threads
+ * concurrently, which can be used as a concurrent visited set.
+ */
+public class AtomicBitSet {
+
+    private final AtomicLongArray words;
+
+    public AtomicBitSet(int nbits) {
+        words = new AtomicLongArray((nbits + 63) >>> 6);
+    }
+
+    public boolean get(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Set the bit at index.
+     * @return whether the bit is set by this call, i.e., it was clear.
+     */
+    public boolean set(int index) {
+        int i = index >>> 6;
+        long mask = 1L << index;
+        long word;
+        do {
+            word = words.get(i);
+            if ((word & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(i, word, word | mask));
+        return true;
+    }
+
+    public void clear(int index) {
+        int i = index >>> 6;
+        long mask = 1L << index;
+        long word;
+        do {
+            word = words.get(i);
+            if ((word & mask) == 0) {
+                return;
+            }
+        } while (!words.compareAndSet(i, word, word & ~mask));
+    }
+}
@@ -0,0 +1,377 @@
+package ptatoolkit.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints in the style of Roaring bitmaps.
+ *
+ * The ints are partitioned into chunks by their high 16 bits. A sparse
+ * chunk is stored as a sorted array of its low 16 bits, and a dense chunk
+ * (more than 4096 elements) is stored as a 65536-bit bitmap, so that
+ * every chunk takes at most 8 KB. Intersection tests between bitmaps
+ * are word-parallel.
+ */
+public class CompressedBitSet {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+    // high 16 bits of each chunk, in ascending order
+    private char[] keys = new char[2];
+    // chunk i is arrays[i][0 .. cards[i]) if bitmaps[i] is null
+    private char[][] arrays = new char[2][];
+    private long[][] bitmaps = new long[2][];
+    private int[] cards = new int[2];
+    private int nrChunks = 0;
+    private int cardinality = 0;
+
+    /**
+     * Add x to this set.
+     * @return whether x is newly added.
+     */
+    public boolean add(int x) {
+        char key = (char) (x >>> 16);
+        char low = (char) x;
+        int i = findChunk(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertChunk(i, key);
+        }
+        boolean added;
+        if (bitmaps[i] != null) {
+            long[] bitmap = bitmaps[i];
+            long mask = 1L << low;
+            added = (bitmap[low >>> 6] & mask) == 0;
+            bitmap[low >>> 6] |= mask;
+        } else {
+            char[] array = arrays[i];
+            int pos = Arrays.binarySearch(array, 0, cards[i], low);
+            added = pos < 0;
+            if (added) {
+                pos = -pos - 1;
+                if (cards[i] == array.length) {
+                    array = arrays[i] = Arrays.copyOf(array, array.length * 2);
+                }
+                System.arraycopy(array, pos, array, pos + 1, cards[i] - pos);
+                array[pos] = low;
+                if (cards[i] + 1 > ARRAY_MAX) {
+                    toBitmap(i, cards[i] + 1);
+                }
+            }
+        }
+        if (added) {
+            ++cards[i];
+            ++cardinality;
+        }
+        return added;
+    }
+
+    public boolean contains(int x) {
+        int i = findChunk((char) (x >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        char low = (char) x;
+        if (bitmaps[i] != null) {
+            return (bitmaps[i][low >>> 6] & (1L << low)) != 0;
+        } else {
+            return Arrays.binarySearch(arrays[i], 0, cards[i], low) >= 0;
+        }
+    }
+
+    /**
+     * @return whether this set and other have common elements.
+     */
+    public boolean intersects(CompressedBitSet other) {
+        int i = 0, j = 0;
+        while (i < nrChunks && j < other.nrChunks) {
+            if (keys[i] < other.keys[j]) {
+                ++i;
+            } else if (keys[i] > other.keys[j]) {
+                ++j;
+            } else {
+                if (chunksIntersect(this, i, other, j)) {
+                    return true;
+                }
+                ++i;
+                ++j;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add all elements of other to this set. The chunks of bitmaps
+     * are united word by word.
+     */
+    public void or(CompressedBitSet other) {
+        for (int j = 0; j < other.nrChunks; ++j) {
+            char key = other.keys[j];
+            int i = findChunk(key);
+            if (i < 0) {
+                i = -i - 1;
+                insertChunk(i, key);
+            }
+            int before = cards[i];
+            orChunk(i, other, j);
+            cardinality += cards[i] - before;
+        }
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Release the unused capacity of this set.
+     */
+    public void trim() {
+        keys = Arrays.copyOf(keys, nrChunks);
+        arrays = Arrays.copyOf(arrays, nrChunks);
+        bitmaps = Arrays.copyOf(bitmaps, nrChunks);
+        cards = Arrays.copyOf(cards, nrChunks);
+        for (int i = 0; i < nrChunks; ++i) {
+            if (arrays[i] != null && arrays[i].length > cards[i]) {
+                arrays[i] = Arrays.copyOf(arrays[i], cards[i]);
+            }
+        }
+    }
+
+    public void forEach(IntConsumer action) {
+        PrimitiveIterator.OfInt itr = iterator();
+        while (itr.hasNext()) {
+            action.accept(itr.nextInt());
+        }
+    }
+
+    /**
+     * @return an iterator over the elements of this set in ascending order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int chunk = 0;
+            private int pos = 0; // index in array, or bit index in bitmap
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < nrChunks) {
+                    if (bitmaps[chunk] != null) {
+                        long[] bitmap = bitmaps[chunk];
+                        int word = pos >>> 6;
+                        if (word < BITMAP_WORDS) {
+                            long bits = bitmap[word] & (-1L << pos);
+                            while (bits == 0 && ++word < BITMAP_WORDS) {
+                                bits = bitmap[word];
+                            }
+                            if (bits != 0) {
+                                pos = (word << 6) + Long.numberOfTrailingZeros(bits);
+                                return true;
+                            }
+                        }
+                    } else if (pos < cards[chunk]) {
+                        return true;
+                    }
+                    ++chunk;
+                    pos = 0;
+                }
+                return false;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int low = bitmaps[chunk] != null ? pos : arrays[chunk][pos];
+                ++pos;
+                return (keys[chunk] << 16) | low;
+            }
+        };
+    }
+
+    private int findChunk(char key) {
+        return Arrays.binarySearch(keys, 0, nrChunks, key);
+    }
+
+    private void insertChunk(int i, char key) {
+        if (nrChunks == keys.length) {
+            int capacity = Math.max(2, nrChunks * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            arrays = Arrays.copyOf(arrays, capacity);
+            bitmaps = Arrays.copyOf(bitmaps, capacity);
+            cards = Arrays.copyOf(cards, capacity);
+        }
+        int n = nrChunks - i;
+        System.arraycopy(keys, i, keys, i + 1, n);
+        System.arraycopy(arrays, i, arrays, i + 1, n);
+        System.arraycopy(bitmaps, i, bitmaps, i + 1, n);
+        System.arraycopy(cards, i, cards, i + 1, n);
+        keys[i] = key;
+        arrays[i] = new char[4];
+        bitmaps[i] = null;
+        cards[i] = 0;
+        ++nrChunks;
+    }
+
+    /**
+     * Convert chunk i, whose array holds n elements, to a bitmap.
+     */
+    private void toBitmap(int i, int n) {
+        long[] bitmap = new long[BITMAP_WORDS];
+        char[] array = arrays[i];
+        for (int k = 0; k < n; ++k) {
+            bitmap[array[k] >>> 6] |= 1L << array[k];
+        }
+        bitmaps[i] = bitmap;
+        arrays[i] = null;
+    }
+
+    private void orChunk(int i, CompressedBitSet other, int j) {
+        long[] otherBitmap = other.bitmaps[j];
+        char[] otherArray = other.arrays[j];
+        int otherCard = other.cards[j];
+        if (otherBitmap != null) {
+            if (bitmaps[i] == null) {
+                toBitmap(i, cards[i]);
+            }
+            long[] bitmap = bitmaps[i];
+            int card = 0;
+            for (int w = 0; w < BITMAP_WORDS; ++w) {
+                bitmap[w] |= otherBitmap[w];
+                card += Long.bitCount(bitmap[w]);
+            }
+            cards[i] = card;
+        } else if (bitmaps[i] != null) {
+            long[] bitmap = bitmaps[i];
+            for (int k = 0; k < otherCard; ++k) {
+                char low = otherArray[k];
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) == 0) {
+                    bitmap[low >>> 6] |= mask;
+                    ++cards[i];
+                }
+            }
+        } else {
+            // merge two sorted arrays
+            char[] array = arrays[i];
+            int card = cards[i];
+            char[] merged = new char[card + otherCard];
+            int p = 0, q = 0, n = 0;
+            while (p < card || q < otherCard) {
+                char next;
+                if (q == otherCard || (p < card && array[p] < otherArray[q])) {
+                    next = array[p++];
+                } else if (p == card || otherArray[q] < array[p]) {
+                    next = otherArray[q++];
+                } else {
+                    next = array[p++];
+                    ++q;
+                }
+                merged[n++] = next;
+            }
+            arrays[i] = merged;
+            cards[i] = n;
+            if (n > ARRAY_MAX) {
+                toBitmap(i, n);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressedBitSet)) {
+            return false;
+        }
+        CompressedBitSet other = (CompressedBitSet) o;
+        if (cardinality != other.cardinality || nrChunks != other.nrChunks) {
+            return false;
+        }
+        for (int i = 0; i < nrChunks; ++i) {
+            if (keys[i] != other.keys[i] || cards[i] != other.cards[i]) {
+                return false;
+            }
+            // a chunk is a bitmap iff it holds more than ARRAY_MAX elements
+            if (bitmaps[i] != null
+                    ? !Arrays.equals(bitmaps[i], other.bitmaps[i])
+                    : !arrayEquals(arrays[i], other.arrays[i], cards[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = cardinality;
+        for (int i = 0; i < nrChunks; ++i) {
+            hash = 31 * hash + keys[i];
+            if (bitmaps[i] != null) {
+                hash = 31 * hash + Arrays.hashCode(bitmaps[i]);
+            } else {
+                for (int k = 0; k < cards[i]; ++k) {
+                    hash = 31 * hash + arrays[i][k];
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static boolean arrayEquals(char[] a1, char[] a2, int n) {
+        for (int k = 0; k < n; ++k) {
+            if (a1[k] != a2[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean chunksIntersect(CompressedBitSet s1, int i,
+                                           CompressedBitSet s2, int j) {
+        long[] b1 = s1.bitmaps[i], b2 = s2.bitmaps[j];
+        if (b1 != null && b2 != null) {
+            for (int w = 0; w < BITMAP_WORDS; ++w) {
+                if ((b1[w] & b2[w]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (b1 != null || b2 != null) {
+            // probe the array chunk against the bitmap chunk
+            long[] bitmap = b1 != null ? b1 : b2;
+            char[] array = b1 != null ? s2.arrays[j] : s1.arrays[i];
+            int card = b1 != null ? s2.cards[j] : s1.cards[i];
+            for (int k = 0; k < card; ++k) {
+                if ((bitmap[array[k] >>> 6] & (1L << array[k])) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // merge two sorted arrays
+        char[] a1 = s1.arrays[i], a2 = s2.arrays[j];
+        int n1 = s1.cards[i], n2 = s2.cards[j];
+        int p = 0, q = 0;
+        while (p < n1 && q < n2) {
+            if (a1[p] < a2[q]) {
+                ++p;
+            } else if (a1[p] > a2[q]) {
+                ++q;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+}
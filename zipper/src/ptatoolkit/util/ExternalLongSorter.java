@@ -0,0 +1,270 @@
+package ptatoolkit.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Sorts a stream of longs within a bounded memory budget.
+ *
+ * The longs are collected in a buffer, which grows up to the budget.
+ * Whenever the buffer is full, it is sorted and spilled to a temporary
+ * file as a sorted run. The runs and the remaining buffer are merged
+ * when the sorted longs are consumed, reading each run sequentially.
+ * If there are too many runs to be read at once within the budget,
+ * they are first merged into fewer runs in passes of bounded fan-in.
+ */
+public class ExternalLongSorter implements Closeable {
+
+    private static final int MIN_READ_BUFFER = 1 << 12;
+    private static final int MAX_READ_BUFFER = 1 << 20;
+    // maximum number of runs (and the buffer) merged at once
+    private static final int MAX_FAN_IN = 64;
+
+    private final int capacity;
+    private long[] buffer = new long[1024];
+    private int size = 0;
+    private final List<File> runs = new ArrayList<>();
+
+    /**
+     * @param budget maximum number of bytes of the in-memory buffer
+     */
+    public ExternalLongSorter(long budget) {
+        this.capacity = (int) Math.max(1024,
+                Math.min(budget / Long.BYTES, Integer.MAX_VALUE - 8));
+    }
+
+    public void add(long x) {
+        if (size == buffer.length) {
+            if (size < capacity) {
+                buffer = Arrays.copyOf(buffer,
+                        (int) Math.min((long) size * 2, capacity));
+            } else {
+                spill();
+            }
+        }
+        buffer[size++] = x;
+    }
+
+    /**
+     * @return the number of runs spilled to disk.
+     */
+    public int nrRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Perform action on all added longs in ascending order,
+     * which can be done only once.
+     */
+    public void forEachSorted(LongConsumer action) {
+        Arrays.sort(buffer, 0, size);
+        if (runs.isEmpty()) {
+            for (int i = 0; i < size; ++i) {
+                action.accept(buffer[i]);
+            }
+            return;
+        }
+        // The read buffers of the runs share the budget which is not
+        // taken by the remaining longs in memory.
+        long free = (long) (capacity - size) * Long.BYTES;
+        int fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, free / MIN_READ_BUFFER));
+        while (runs.size() + 1 > fanIn) {
+            mergePass(fanIn, readBufferOf(free, fanIn));
+        }
+        try {
+            merge(runs, new Cursor(buffer, size),
+                    readBufferOf(free, runs.size()), action);
+        } catch (IOException e) {
+            throw new RuntimeException("Merging sorted runs fails, caused by "
+                    + e.getMessage());
+        }
+        buffer = null;
+    }
+
+    /**
+     * Delete the spilled runs.
+     */
+    @Override
+    public void close() {
+        runs.forEach(File::delete);
+        runs.clear();
+    }
+
+    private void spill() {
+        Arrays.sort(buffer, 0, size);
+        try {
+            File run = createRun();
+            runs.add(run);
+            try (DataOutputStream out = openRun(run)) {
+                for (int i = 0; i < size; ++i) {
+                    out.writeLong(buffer[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Spilling sorted run fails, caused by "
+                    + e.getMessage());
+        }
+        size = 0;
+    }
+
+    /**
+     * Merge each group of fanIn consecutive runs into a new run,
+     * which replaces the group in runs.
+     */
+    private void mergePass(int fanIn, int readBuffer) {
+        List<File> merged = new ArrayList<>();
+        for (int start = 0; start < runs.size(); start += fanIn) {
+            List<File> group = runs.subList(start,
+                    Math.min(start + fanIn, runs.size()));
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+            try {
+                File run = createRun();
+                merged.add(run);
+                try (DataOutputStream out = openRun(run)) {
+                    merge(group, null, readBuffer, x -> {
+                        try {
+                            out.writeLong(x);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Spilling merged run fails, " +
+                                    "caused by " + e.getMessage());
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Merging sorted runs fails, caused by "
+                        + e.getMessage());
+            }
+            group.forEach(File::delete);
+        }
+        runs.clear();
+        runs.addAll(merged);
+    }
+
+    /**
+     * Merge given runs and the in-memory cursor (if not null),
+     * and perform action on the merged longs in ascending order.
+     */
+    private static void merge(List<File> runs, Cursor memory, int readBuffer,
+                              LongConsumer action) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(runs.size() + 1);
+        try {
+            for (File run : runs) {
+                Cursor cursor = new Cursor(new DataInputStream(new BufferedInputStream(
+                        new FileInputStream(run), readBuffer)));
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+            if (memory != null && memory.advance()) {
+                queue.add(memory);
+            }
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                action.accept(cursor.head);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+        } finally {
+            queue.forEach(Cursor::close);
+        }
+    }
+
+    private static int readBufferOf(long free, int nrRuns) {
+        return (int) Math.min(MAX_READ_BUFFER,
+                Math.max(MIN_READ_BUFFER, free / Math.max(nrRuns, 1)));
+    }
+
+    private static File createRun() throws IOException {
+        File run = File.createTempFile("zipper-run", ".bin");
+        run.deleteOnExit();
+        return run;
+    }
+
+    private static DataOutputStream openRun(File run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(run), 1 << 16));
+    }
+
+    /**
+     * The head of a sorted run on disk, or of the in-memory buffer.
+     */
+    private static class Cursor implements Comparable<Cursor> {
+
+        private final DataInputStream in;
+        private final long[] array;
+        private final int length;
+        private int pos = 0;
+        private long head;
+
+        private Cursor(DataInputStream in) {
+            this.in = in;
+            this.array = null;
+            this.length = 0;
+        }
+
+        /**
+         * The cursor of array[0 .. length).
+         */
+        private Cursor(long[] array, int length) {
+            this.in = null;
+            this.array = array;
+            this.length = length;
+        }
+
+        /**
+         * Move to the next long.
+         * @return false if the run is exhausted.
+         */
+        private boolean advance() throws IOException {
+            if (array != null) {
+                if (pos == length) {
+                    return false;
+                }
+                head = array[pos++];
+                return true;
+            }
+            try {
+                head = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // the run is read completely
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(head, other.head);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ptatoolkit.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from non-negative int keys to non-negative int values,
+ * based on open addressing, which avoids boxing keys and values.
+ */
+public class IntIntMap {
+
+    public static final int ABSENT = -1;
+
+    private int[] keys; // key + 1, 0 means empty slot
+    private int[] values;
+    private int size = 0;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) * 2;
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * @return the value of key, or ABSENT if key is not in this map.
+     */
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask, k;
+             (k = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (k == key + 1) {
+                return values[slot];
+            }
+        }
+        return ABSENT;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != ABSENT;
+    }
+
+    public void put(int key, int value) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        for (int k; (k = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (k == key + 1) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key + 1;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != 0) {
+                int slot = mix(oldKeys[i] - 1) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package ptatoolkit.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable stack of ints, which keeps its capacity when it is
+ * popped or cleared, so that it can be reused without allocation.
+ */
+public class IntStack {
+
+    private int[] elems;
+    private int size = 0;
+
+    public IntStack() {
+        this(16);
+    }
+
+    public IntStack(int initialCapacity) {
+        elems = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void push(int elem) {
+        if (size == elems.length) {
+            elems = Arrays.copyOf(elems, size * 2);
+        }
+        elems[size++] = elem;
+    }
+
+    public int pop() {
+        return elems[--size];
+    }
+
+    public int peek() {
+        return elems[size - 1];
+    }
+
+    public int get(int index) {
+        return elems[index];
+    }
+
+    public void set(int index, int elem) {
+        elems[index] = elem;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pop the elements above given size.
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the elements from bottom to top.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elems, size);
+    }
+}
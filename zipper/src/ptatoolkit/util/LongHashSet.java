@@ -0,0 +1,93 @@
+package ptatoolkit.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative longs based on open addressing, which avoids
+ * boxing. The occupied slots are recorded, so that clearing the set
+ * takes time proportional to its size and keeps its capacity.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = -1L;
+
+    private long[] slots;
+    private final IntStack used = new IntStack();
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) * 2;
+        slots = newSlots(capacity);
+    }
+
+    /**
+     * Add key to this set.
+     * @return whether key is newly added.
+     */
+    public boolean add(long key) {
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+        for (long k; (k = slots[slot]) != EMPTY; slot = (slot + 1) & mask) {
+            if (k == key) {
+                return false;
+            }
+        }
+        slots[slot] = key;
+        used.push(slot);
+        if (used.size() * 2 > slots.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        int mask = slots.length - 1;
+        for (int slot = mix(key) & mask;
+             slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (slots[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return used.size();
+    }
+
+    public void clear() {
+        for (int i = 0; i < used.size(); ++i) {
+            slots[used.get(i)] = EMPTY;
+        }
+        used.clear();
+    }
+
+    private void rehash() {
+        long[] oldSlots = slots;
+        slots = newSlots(oldSlots.length * 2);
+        int mask = slots.length - 1;
+        for (int i = 0; i < used.size(); ++i) {
+            long key = oldSlots[used.get(i)];
+            int slot = mix(key) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = key;
+            used.set(i, slot);
+        }
+    }
+
+    private static long[] newSlots(int capacity) {
+        long[] slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,22 +1,77 @@
 package ptatoolkit.util;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * This class helps eliminate redundant equal sets.
+ * This class helps eliminate redundant equal sets. It may be used
+ * by many threads concurrently.
+ *
+ * The sets must not be modified after they are given to this factory.
+ * A lookup hashes the given set and compares it with the interned sets
+ * of the same hash, so the sets which cache their hash codes and compare
+ * their contents word by word, e.g., {@link ptatoolkit.pta.util.BitmapSet},
+ * are interned much faster than hash sets. The sets are interned per
+ * class, thus equal sets of different classes are not shared.
  * @param <T>
  */
 public class SetFactory<T> {
 
-    private final Map<Set<T>, Set<T>> sets = new HashMap<>();
+    // interned sets of each class
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Set<T>, Set<T>>> sets =
+            new ConcurrentHashMap<>();
+    // statistics
+    private final LongAdder nrRequests = new LongAdder();
+    private final LongAdder nrReleasedElements = new LongAdder();
 
-    public Set<T> get(Set<T> set) {
-        if (!sets.containsKey(set)) {
-            sets.put(set, set);
+    /**
+     * @return the interned set which is of the same class as, and is
+     * equal to, given set.
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends Set<T>> S get(S set) {
+        nrRequests.increment();
+        // the interned set is of the class of set, thus an S
+        Set<T> interned = sets.computeIfAbsent(set.getClass(),
+                c -> new ConcurrentHashMap<>()).putIfAbsent(set, set);
+        if (interned == null) {
+            return set;
         }
-        return sets.get(set);
+        if (interned != set) {
+            nrReleasedElements.add(set.size());
+        }
+        return (S) interned;
+    }
+
+    /**
+     * @return the number of sets which have been given to this factory.
+     */
+    public long nrRequests() {
+        return nrRequests.sum();
+    }
+
+    /**
+     * @return the number of distinct sets.
+     */
+    public int nrSets() {
+        return sets.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * @return the total size of the sets which are replaced by the
+     * equal interned sets, i.e., the elements saved by this factory.
+     */
+    public long nrReleasedElements() {
+        return nrReleasedElements.sum();
     }
 
+    @Override
+    public String toString() {
+        return String.format("%d sets requested, %d distinct, " +
+                "%d duplicate elements released",
+                nrRequests(), nrSets(), nrReleasedElements());
+    }
 }
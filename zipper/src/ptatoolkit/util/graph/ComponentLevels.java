@@ -0,0 +1,129 @@
+package ptatoolkit.util.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The components of a graph, given by {@link IntStronglyConnectedComponents}
+ * on its CSR arrays, grouped by the levels of Kahn's algorithm on the
+ * reverse condensed graph: the components without successors are at
+ * level 0, and every other component is at the level next to the highest
+ * level of its successors. Thus the components of a level do not reach
+ * each other, and a value can be folded from the sinks of the graph by
+ * processing the levels in order, and the components of each level
+ * in parallel.
+ */
+public class ComponentLevels {
+
+    // levels of fewer components are processed sequentially
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS =
+            new ConcurrentHashMap<>();
+
+    // the components of level l are
+    // components[levelOffsets[l] .. levelOffsets[l + 1])
+    private final int[] components;
+    private final int[] levelOffsets;
+
+    public ComponentLevels(IntStronglyConnectedComponents scc,
+                           int[] offsets, int[] succs) {
+        int nrComponents = scc.nrComponents();
+        // number of the edges to other components, and the
+        // predecessors of each component in CSR form
+        int[] degrees = new int[nrComponents];
+        int[] predOffsets = new int[nrComponents + 1];
+        for (int c = 0; c < nrComponents; ++c) {
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                int v = scc.memberAt(i);
+                for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                    int succ = scc.componentOf(succs[e]);
+                    if (succ != c) {
+                        ++degrees[c];
+                        ++predOffsets[succ + 1];
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < nrComponents; ++c) {
+            predOffsets[c + 1] += predOffsets[c];
+        }
+        int[] preds = new int[predOffsets[nrComponents]];
+        int[] next = Arrays.copyOf(predOffsets, nrComponents);
+        for (int c = 0; c < nrComponents; ++c) {
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                int v = scc.memberAt(i);
+                for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                    int succ = scc.componentOf(succs[e]);
+                    if (succ != c) {
+                        preds[next[succ]++] = c;
+                    }
+                }
+            }
+        }
+        components = new int[nrComponents];
+        int size = 0;
+        for (int c = 0; c < nrComponents; ++c) {
+            if (degrees[c] == 0) {
+                components[size++] = c;
+            }
+        }
+        int[] offsetsOfLevels = new int[16];
+        int nrLevels = 0;
+        for (int start = 0; start < size; ) {
+            if (nrLevels + 1 >= offsetsOfLevels.length) {
+                offsetsOfLevels = Arrays.copyOf(offsetsOfLevels, nrLevels * 2);
+            }
+            offsetsOfLevels[nrLevels++] = start;
+            int end = size;
+            for (int i = start; i < end; ++i) {
+                int c = components[i];
+                for (int p = predOffsets[c]; p < predOffsets[c + 1]; ++p) {
+                    if (--degrees[preds[p]] == 0) {
+                        components[size++] = preds[p];
+                    }
+                }
+            }
+            start = end;
+        }
+        offsetsOfLevels[nrLevels] = size;
+        levelOffsets = Arrays.copyOf(offsetsOfLevels, nrLevels + 1);
+    }
+
+    public int nrLevels() {
+        return levelOffsets.length - 1;
+    }
+
+    /**
+     * Perform action on each component, level by level. The components
+     * of a level may be processed in parallel on pool if it is not null.
+     */
+    public void forEach(ForkJoinPool pool, IntConsumer action) {
+        for (int l = 0; l < nrLevels(); ++l) {
+            int start = levelOffsets[l];
+            int end = levelOffsets[l + 1];
+            if (pool != null && end - start >= PARALLEL_THRESHOLD) {
+                // the results of a level are visible to the following
+                // levels as the level is joined
+                pool.submit(() -> IntStream.range(start, end).parallel()
+                        .forEach(i -> action.accept(components[i]))).join();
+            } else {
+                for (int i = start; i < end; ++i) {
+                    action.accept(components[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the pool of nThreads threads shared by the folds of the
+     * process, or null if nThreads is not greater than 1.
+     */
+    public static ForkJoinPool poolOf(int nThreads) {
+        return nThreads > 1 ?
+                POOLS.computeIfAbsent(nThreads, ForkJoinPool::new) : null;
+    }
+}
@@ -0,0 +1,180 @@
+package ptatoolkit.util.graph;
+
+import ptatoolkit.pta.util.Numberable;
+import ptatoolkit.util.LongHashSet;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.IntFunction;
+
+/**
+ * A directed graph of numbered nodes, whose adjacency lists are growable
+ * arrays of node IDs instead of hash sets. Duplicate edges are ignored,
+ * and the numbers of nodes and edges are maintained.
+ *
+ * {@link #clear()} keeps the allocated capacity, so that one instance can
+ * be reused for many graphs. The collections returned by the graph are
+ * views, which are valid until the graph is modified.
+ * @param <N>
+ */
+public class IntDirectedGraph<N extends Numberable> implements DirectedGraph<N> {
+
+    private final IntFunction<N> nodeOf;
+    // local index of each node ID, -1 if the node is absent
+    private int[] indexes = new int[0];
+    // node ID of each local index
+    private int[] ids = new int[16];
+    private int nrNodes = 0;
+    private int[][] succs = new int[16][];
+    private int[] nrSuccs = new int[16];
+    private int[][] preds = new int[16][];
+    private int[] nrPreds = new int[16];
+    // (source ID << 32) | target ID of each edge
+    private final LongHashSet edges = new LongHashSet();
+
+    /**
+     * @param nodeOf maps node IDs to nodes
+     */
+    public IntDirectedGraph(IntFunction<N> nodeOf) {
+        this.nodeOf = nodeOf;
+    }
+
+    public void addNode(N node) {
+        localIndexOf(node.getID(), true);
+    }
+
+    public void addEdge(N from, N to) {
+        int f = localIndexOf(from.getID(), true);
+        int t = localIndexOf(to.getID(), true);
+        if (edges.add(((long) from.getID() << 32) | to.getID())) {
+            succs[f] = append(succs[f], nrSuccs[f]++, to.getID());
+            preds[t] = append(preds[t], nrPreds[t]++, from.getID());
+        }
+    }
+
+    public boolean hasNode(N node) {
+        return localIndexOf(node.getID(), false) != -1;
+    }
+
+    public int nrNodes() {
+        return nrNodes;
+    }
+
+    public int nrEdges() {
+        return edges.size();
+    }
+
+    /**
+     * Remove all nodes and edges, and keep the allocated capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < nrNodes; ++i) {
+            indexes[ids[i]] = -1;
+        }
+        nrNodes = 0;
+        edges.clear();
+    }
+
+    @Override
+    public Collection<N> allNodes() {
+        return new NodeList(ids, nrNodes) {
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Numberable)) {
+                    return false;
+                }
+                int index = localIndexOf(((Numberable) o).getID(), false);
+                return index != -1 && nodeOf.apply(ids[index]) == o;
+            }
+        };
+    }
+
+    @Override
+    public Collection<N> predsOf(N n) {
+        int index = localIndexOf(n.getID(), false);
+        return index != -1 ?
+                new NodeList(preds[index], nrPreds[index]) :
+                Collections.emptyList();
+    }
+
+    @Override
+    public Collection<N> succsOf(N n) {
+        int index = localIndexOf(n.getID(), false);
+        return index != -1 ?
+                new NodeList(succs[index], nrSuccs[index]) :
+                Collections.emptyList();
+    }
+
+    /**
+     * @param add whether to add the node of given ID if it is absent
+     * @return the local index of given node ID, or -1 if it is absent.
+     */
+    private int localIndexOf(int id, boolean add) {
+        if (id < indexes.length && indexes[id] != -1) {
+            return indexes[id];
+        }
+        if (!add) {
+            return -1;
+        }
+        if (id >= indexes.length) {
+            int oldLength = indexes.length;
+            indexes = Arrays.copyOf(indexes, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(indexes, oldLength, indexes.length, -1);
+        }
+        if (nrNodes == ids.length) {
+            int capacity = nrNodes * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            succs = Arrays.copyOf(succs, capacity);
+            nrSuccs = Arrays.copyOf(nrSuccs, capacity);
+            preds = Arrays.copyOf(preds, capacity);
+            nrPreds = Arrays.copyOf(nrPreds, capacity);
+        }
+        int index = nrNodes++;
+        indexes[id] = index;
+        ids[index] = id;
+        // the adjacency arrays of the index are reused
+        nrSuccs[index] = 0;
+        nrPreds[index] = 0;
+        return index;
+    }
+
+    private static int[] append(int[] array, int size, int elem) {
+        if (array == null) {
+            array = new int[4];
+        } else if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = elem;
+        return array;
+    }
+
+    /**
+     * The nodes of the IDs in an array slice.
+     */
+    private class NodeList extends AbstractList<N> {
+
+        private final int[] nodeIDs;
+        private final int size;
+
+        private NodeList(int[] nodeIDs, int size) {
+            this.nodeIDs = nodeIDs;
+            this.size = size;
+        }
+
+        @Override
+        public N get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return nodeOf.apply(nodeIDs[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package ptatoolkit.util.graph;
+
+import ptatoolkit.util.IntStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finding strongly connected components in a directed graph whose nodes
+ * are 0 .. n-1, and whose successors are given in CSR form, i.e., the
+ * successors of node v are succs[offsets[v] .. offsets[v + 1]).
+ *
+ * The sequential algorithm is Tarjan's algorithm with an explicit stack
+ * and primitive tables, which runs in linear time. The components are
+ * numbered in the order they are found, which is a reverse topological
+ * order: every component is numbered after the components it reaches.
+ *
+ * The parallel algorithm trims the trivial components, and then
+ * decomposes the graph by forward-backward (FW-BW) search: the nodes
+ * which are both forward and backward reachable from a pivot form its
+ * component, and the forward-only, backward-only and remaining nodes
+ * are decomposed independently in parallel. Small subgraphs are left
+ * to Tarjan's algorithm. The components are numbered in arbitrary order.
+ */
+public class IntStronglyConnectedComponents {
+
+    private static final int DONE = -1;
+    // subgraphs smaller than this are decomposed by Tarjan's algorithm
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private final int nrNodes;
+    private final int[] offsets;
+    private final int[] succs;
+    // component of each node
+    private final int[] components;
+    private int nrComponents;
+    // members of component c are members[memberOffsets[c] .. memberOffsets[c + 1]),
+    // which are computed on demand
+    private int[] memberOffsets;
+    private int[] members;
+
+    // tables of Tarjan's algorithm, shared by disjoint subgraphs
+    private int[] index;
+    private int[] lowlink;
+    private boolean[] onStack;
+    // subgraph of each node in parallel decomposition
+    private int[] colors;
+    private AtomicInteger nextColor;
+    private AtomicInteger nextComponent;
+
+    public IntStronglyConnectedComponents(int nrNodes, int[] offsets, int[] succs) {
+        this(nrNodes, offsets, succs, 1);
+    }
+
+    /**
+     * @param nThreads if greater than 1, the components are computed
+     *                 by parallel decomposition with nThreads threads.
+     */
+    public IntStronglyConnectedComponents(int nrNodes, int[] offsets, int[] succs,
+                                          int nThreads) {
+        this.nrNodes = nrNodes;
+        this.offsets = offsets;
+        this.succs = succs;
+        this.components = new int[nrNodes];
+        this.index = new int[nrNodes];
+        this.lowlink = new int[nrNodes];
+        this.onStack = new boolean[nrNodes];
+        Arrays.fill(index, -1);
+        if (nThreads > 1 && nrNodes >= SEQUENTIAL_THRESHOLD) {
+            decomposeInParallel(nThreads);
+        } else {
+            int[] roots = new int[nrNodes];
+            for (int v = 0; v < nrNodes; ++v) {
+                roots[v] = v;
+            }
+            new Tarjan(null, 0).run(roots, nrNodes);
+        }
+        // release memory
+        index = null;
+        lowlink = null;
+        onStack = null;
+        colors = null;
+    }
+
+    public int nrComponents() {
+        return nrComponents;
+    }
+
+    /**
+     * @return the component of node v.
+     */
+    public int componentOf(int v) {
+        return components[v];
+    }
+
+    /**
+     * @return the index of the first member of component c, see memberAt()
+     */
+    public int memberStart(int c) {
+        computeMembers();
+        return memberOffsets[c];
+    }
+
+    /**
+     * @return the index after the last member of component c
+     */
+    public int memberEnd(int c) {
+        computeMembers();
+        return memberOffsets[c + 1];
+    }
+
+    public int memberAt(int i) {
+        return members[i];
+    }
+
+    /**
+     * @return whether component c has more than one node, or consists
+     * of one node which has itself as a successor.
+     */
+    public boolean isTrueComponent(int c) {
+        if (memberEnd(c) - memberStart(c) > 1) {
+            return true;
+        }
+        int v = members[memberOffsets[c]];
+        for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+            if (succs[e] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void computeMembers() {
+        if (memberOffsets != null) {
+            return;
+        }
+        int[] starts = new int[nrComponents + 1];
+        for (int v = 0; v < nrNodes; ++v) {
+            ++starts[components[v] + 1];
+        }
+        for (int c = 0; c < nrComponents; ++c) {
+            starts[c + 1] += starts[c];
+        }
+        int[] nodes = new int[nrNodes];
+        int[] next = Arrays.copyOf(starts, nrComponents);
+        for (int v = 0; v < nrNodes; ++v) {
+            nodes[next[components[v]]++] = v;
+        }
+        members = nodes;
+        memberOffsets = starts;
+    }
+
+    /**
+     * Tarjan's algorithm over the nodes of given color, or over all
+     * nodes if colors is null.
+     */
+    private class Tarjan {
+
+        private final int[] colors;
+        private final int color;
+        private int counter = 0;
+
+        private Tarjan(int[] colors, int color) {
+            this.colors = colors;
+            this.color = color;
+        }
+
+        private boolean inSubgraph(int v) {
+            return colors == null || colors[v] == color;
+        }
+
+        /**
+         * Search from roots[0 .. nrRoots), which must be in the subgraph.
+         */
+        private void run(int[] roots, int nrRoots) {
+            IntStack stack = new IntStack(); // stack of Tarjan's algorithm
+            IntStack callNodes = new IntStack(); // explicit call stack
+            IntStack callCursors = new IntStack();
+            for (int r = 0; r < nrRoots; ++r) {
+                int root = roots[r];
+                if (index[root] != -1) {
+                    continue;
+                }
+                enter(root, stack, callNodes, callCursors);
+                while (!callNodes.isEmpty()) {
+                    int top = callNodes.size() - 1;
+                    int v = callNodes.get(top);
+                    int e = callCursors.get(top);
+                    if (e < offsets[v + 1]) {
+                        callCursors.set(top, e + 1);
+                        int w = succs[e];
+                        if (!inSubgraph(w)) {
+                            continue;
+                        }
+                        if (index[w] == -1) {
+                            enter(w, stack, callNodes, callCursors);
+                        } else if (onStack[w]) {
+                            lowlink[v] = Math.min(lowlink[v], index[w]);
+                        }
+                    } else { // all successors of v are done
+                        callNodes.pop();
+                        callCursors.pop();
+                        if (lowlink[v] == index[v]) {
+                            int c = newComponent();
+                            int w;
+                            do {
+                                w = stack.pop();
+                                onStack[w] = false;
+                                components[w] = c;
+                            } while (w != v);
+                        }
+                        if (!callNodes.isEmpty()) {
+                            int u = callNodes.peek();
+                            lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void enter(int v, IntStack stack,
+                           IntStack callNodes, IntStack callCursors) {
+            index[v] = counter;
+            lowlink[v] = counter;
+            ++counter;
+            stack.push(v);
+            onStack[v] = true;
+            callNodes.push(v);
+            callCursors.push(offsets[v]);
+        }
+    }
+
+    private int newComponent() {
+        return nextComponent != null ?
+                nextComponent.getAndIncrement() : nrComponents++;
+    }
+
+    private void decomposeInParallel(int nThreads) {
+        nextComponent = new AtomicInteger(0);
+        nextColor = new AtomicInteger(1);
+        colors = new int[nrNodes];
+        int[] predOffsets = new int[nrNodes + 1];
+        int[] preds = new int[succs.length];
+        for (int e = 0; e < offsets[nrNodes]; ++e) {
+            ++predOffsets[succs[e] + 1];
+        }
+        for (int v = 0; v < nrNodes; ++v) {
+            predOffsets[v + 1] += predOffsets[v];
+        }
+        int[] next = Arrays.copyOf(predOffsets, nrNodes);
+        for (int v = 0; v < nrNodes; ++v) {
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                preds[next[succs[e]]++] = v;
+            }
+        }
+        trim(predOffsets, preds);
+        IntStack rest = new IntStack();
+        for (int v = 0; v < nrNodes; ++v) {
+            if (colors[v] != DONE) {
+                rest.push(v);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try {
+            pool.invoke(new Decompose(rest.toArray(), 0, predOffsets, preds));
+        } finally {
+            pool.shutdown();
+        }
+        nrComponents = nextComponent.get();
+        nextComponent = null;
+        nextColor = null;
+    }
+
+    /**
+     * Repeatedly remove the nodes without predecessors or successors
+     * (other than themselves), each of which is a component.
+     */
+    private void trim(int[] predOffsets, int[] preds) {
+        int[] inDegrees = new int[nrNodes];
+        int[] outDegrees = new int[nrNodes];
+        for (int v = 0; v < nrNodes; ++v) {
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                if (succs[e] != v) {
+                    ++outDegrees[v];
+                    ++inDegrees[succs[e]];
+                }
+            }
+        }
+        IntStack queue = new IntStack();
+        for (int v = 0; v < nrNodes; ++v) {
+            if (inDegrees[v] == 0 || outDegrees[v] == 0) {
+                colors[v] = DONE;
+                queue.push(v);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int v = queue.pop();
+            components[v] = newComponent();
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                int w = succs[e];
+                if (w != v && colors[w] != DONE && --inDegrees[w] == 0) {
+                    colors[w] = DONE;
+                    queue.push(w);
+                }
+            }
+            for (int e = predOffsets[v]; e < predOffsets[v + 1]; ++e) {
+                int u = preds[e];
+                if (u != v && colors[u] != DONE && --outDegrees[u] == 0) {
+                    colors[u] = DONE;
+                    queue.push(u);
+                }
+            }
+        }
+    }
+
+    /**
+     * FW-BW decomposition of the subgraph of given nodes, which all
+     * have the same color.
+     */
+    private class Decompose extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nodes;
+        private final int color;
+        private final int[] predOffsets;
+        private final int[] preds;
+
+        private Decompose(int[] nodes, int color, int[] predOffsets, int[] preds) {
+            this.nodes = nodes;
+            this.color = color;
+            this.predOffsets = predOffsets;
+            this.preds = preds;
+        }
+
+        @Override
+        protected void compute() {
+            if (nodes.length < SEQUENTIAL_THRESHOLD) {
+                new Tarjan(colors, color).run(nodes, nodes.length);
+                return;
+            }
+            int pivot = nodes[0];
+            int fwColor = nextColor.getAndIncrement();
+            int bwColor = nextColor.getAndIncrement();
+            // forward search
+            IntStack fw = new IntStack();
+            IntStack stack = new IntStack();
+            colors[pivot] = fwColor;
+            stack.push(pivot);
+            while (!stack.isEmpty()) {
+                int v = stack.pop();
+                fw.push(v);
+                for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                    int w = succs[e];
+                    if (colors[w] == color) {
+                        colors[w] = fwColor;
+                        stack.push(w);
+                    }
+                }
+            }
+            // backward search, which finds the component of pivot
+            // among the forward reachable nodes
+            int c = newComponent();
+            IntStack bw = new IntStack();
+            colors[pivot] = DONE;
+            components[pivot] = c;
+            stack.push(pivot);
+            while (!stack.isEmpty()) {
+                int v = stack.pop();
+                for (int e = predOffsets[v]; e < predOffsets[v + 1]; ++e) {
+                    int u = preds[e];
+                    if (colors[u] == fwColor) {
+                        colors[u] = DONE;
+                        components[u] = c;
+                        stack.push(u);
+                    } else if (colors[u] == color) {
+                        colors[u] = bwColor;
+                        bw.push(u);
+                        stack.push(u);
+                    }
+                }
+            }
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(3);
+            addTask(tasks, select(fw, fwColor), fwColor);
+            addTask(tasks, bw.toArray(), bwColor);
+            addTask(tasks, select(nodes, color), color);
+            invokeAll(tasks);
+        }
+
+        private void addTask(List<ForkJoinTask<?>> tasks, int[] subgraph, int color) {
+            if (subgraph.length > 0) {
+                tasks.add(new Decompose(subgraph, color, predOffsets, preds));
+            }
+        }
+
+        private int[] select(IntStack candidates, int color) {
+            IntStack selected = new IntStack();
+            for (int i = 0; i < candidates.size(); ++i) {
+                if (colors[candidates.get(i)] == color) {
+                    selected.push(candidates.get(i));
+                }
+            }
+            return selected.toArray();
+        }
+
+        private int[] select(int[] candidates, int color) {
+            IntStack selected = new IntStack();
+            for (int v : candidates) {
+                if (colors[v] == color) {
+                    selected.push(v);
+                }
+            }
+            return selected.toArray();
+        }
+    }
+}
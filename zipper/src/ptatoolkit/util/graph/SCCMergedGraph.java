@@ -1,9 +1,9 @@
 package ptatoolkit.util.graph;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -35,12 +35,12 @@ public class SCCMergedGraph<N> implements DirectedGraph<MergedNode<N>> {
 
     private void init(DirectedGraph<N> graph) {
         nodes = new HashSet<>();
-        Map<N, MergedNode<N>> nodeMap = new HashMap<>();
         StronglyConnectedComponents<N> scc =
                 new StronglyConnectedComponents<>(graph);
+        List<MergedNode<N>> mergedNodes = new ArrayList<>();
         scc.getComponents().forEach(component -> {
             MergedNode<N> node = new MergedNode<>(component);
-            component.forEach(n -> nodeMap.put(n, node));
+            mergedNodes.add(node);
             nodes.add(node);
         });
 
@@ -49,7 +49,7 @@ public class SCCMergedGraph<N> implements DirectedGraph<MergedNode<N>> {
                     .stream()
                     .map(graph::succsOf)
                     .flatMap(succs -> succs.stream())
-                    .map(nodeMap::get)
+                    .map(succ -> mergedNodes.get(scc.componentOf(succ)))
                     .filter(succ -> succ != node) // exclude self-loop
                     .forEach(succ -> {
                         node.addSucc(succ);
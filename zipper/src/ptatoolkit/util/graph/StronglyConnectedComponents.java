@@ -1,49 +1,79 @@
 package ptatoolkit.util.graph;
 
+import ptatoolkit.util.IntStack;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 /**
  * Finding strongly connected components in a directed graph
- * using Tarjan's algorithm.
+ * using Tarjan's algorithm, see {@link IntStronglyConnectedComponents}.
  * @param <N>
  */
 public class StronglyConnectedComponents<N> {
 
     private final List<List<N>> componentList = new ArrayList<>();
     private final List<List<N>> trueComponentList = new ArrayList<>();
-
-    private int index = 0;
-    private Map<N,Integer> indexForNode, lowlinkForNode;
-    private Stack<N> stack;
-    private DirectedGraph<N> graph;
+    private final Map<N, Integer> componentOfNode;
 
     public StronglyConnectedComponents(DirectedGraph<N> graph) {
-        this.graph = graph;
-        stack = new Stack<>();
-        indexForNode = new HashMap<>();
-        lowlinkForNode = new HashMap<>();
+        this(graph, 1);
+    }
 
-        for (N node : graph.allNodes()) {
-            if (!indexForNode.containsKey(node)) {
-                recurse(node);
+    /**
+     * @param nThreads if greater than 1, the components are computed
+     *                 in parallel, and are not in reverse topological order.
+     */
+    public StronglyConnectedComponents(DirectedGraph<N> graph, int nThreads) {
+        // number the nodes, including the successors absent in allNodes()
+        List<N> nodes = new ArrayList<>(graph.allNodes());
+        Map<N, Integer> indexes = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); ++i) {
+            indexes.put(nodes.get(i), i);
+        }
+        IntStack offsetList = new IntStack(nodes.size() + 1);
+        IntStack succList = new IntStack(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            offsetList.push(succList.size());
+            for (N succ : graph.succsOf(nodes.get(i))) {
+                Integer index = indexes.get(succ);
+                if (index == null) {
+                    index = nodes.size();
+                    indexes.put(succ, index);
+                    nodes.add(succ);
+                }
+                succList.push(index);
             }
         }
+        offsetList.push(succList.size());
+        int[] offsets = offsetList.toArray();
+        int[] succs = succList.toArray();
 
-        validate(graph, componentList);
+        IntStronglyConnectedComponents scc = new IntStronglyConnectedComponents(
+                nodes.size(), offsets, succs, nThreads);
+        componentOfNode = new HashMap<>(nodes.size() * 2);
+        for (int c = 0; c < scc.nrComponents(); ++c) {
+            List<N> component = new ArrayList<>(scc.memberEnd(c) - scc.memberStart(c));
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                N node = nodes.get(scc.memberAt(i));
+                component.add(node);
+                componentOfNode.put(node, c);
+            }
+            componentList.add(component);
+            if (scc.isTrueComponent(c)) {
+                trueComponentList.add(component);
+            }
+        }
 
-        // release memory
-        indexForNode = null;
-        lowlinkForNode = null;
-        stack = null;
-        this.graph = null;
+        validate(graph, componentList);
     }
 
     /**
-     *   @return the list of the strongly-connected components
+     *   @return the list of the strongly-connected components. If they are
+     *   computed sequentially, they are in reverse topological order, i.e.,
+     *   each component comes after all components reachable from it.
      */
     public List<List<N>> getComponents() {
         return componentList;
@@ -58,38 +88,11 @@ public class StronglyConnectedComponents<N> {
         return trueComponentList;
     }
 
-    private void recurse(N node) {
-        indexForNode.put(node, index);
-        lowlinkForNode.put(node, index);
-        ++index;
-        stack.push(node);
-        for (N succ : graph.succsOf(node)) {
-            if (!indexForNode.containsKey(succ)) {
-                recurse(succ);
-                lowlinkForNode.put(node, Math.min(lowlinkForNode.get(node),
-                        lowlinkForNode.get(succ)));
-            } else if (stack.contains(succ)) {
-                lowlinkForNode.put(node, Math.min(lowlinkForNode.get(node),
-                        indexForNode.get(succ)));
-            }
-        }
-        if (lowlinkForNode.get(node).intValue() ==
-                indexForNode.get(node).intValue()) {
-            List<N> scc = new ArrayList<N>();
-            N v2;
-            do {
-                v2 = stack.pop();
-                scc.add(v2);
-            } while (node != v2);
-            componentList.add(scc);
-            if (scc.size() > 1) {
-                trueComponentList.add(scc);
-            } else {
-                N n = scc.get(0);
-                if (graph.succsOf(n).contains(n))
-                    trueComponentList.add(scc);
-            }
-        }
+    /**
+     * @return the index of the component of node in getComponents().
+     */
+    public int componentOf(N node) {
+        return componentOfNode.get(node);
     }
 
     /**
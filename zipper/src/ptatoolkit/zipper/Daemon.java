@@ -0,0 +1,276 @@
+package ptatoolkit.zipper;
+
+import ptatoolkit.Global;
+import ptatoolkit.Options;
+import ptatoolkit.zipper.analysis.Zipper;
+import ptatoolkit.zipper.doop.DoopPointsToAnalysis;
+import ptatoolkit.zipper.flowgraph.ObjectFlowGraph;
+import ptatoolkit.zipper.pta.PointsToAnalysis;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A long-running Zipper service on a local socket. It keeps the points-to
+ * analysis and the object flow graphs of the last program resident, so
+ * that repeated runs on the same program, e.g., with different -express
+ * thresholds or -flow patterns, skip the start-up of JVM and the loading
+ * of Doop results.
+ *
+ * The daemon listens on a loopback port, any free one by default, and
+ * writes the port and a random token of its session into a session file
+ * which only its owner can read. Each connection carries one request,
+ * i.e., a line of the token followed by a line of the options of
+ * {@link Main} separated by tabs. The output of the run is sent back,
+ * followed by a line "#zipper-exit <status>". The request "shutdown"
+ * stops the daemon. Requests are served one at a time, as the options
+ * are global. Requests without the token are rejected, and so are the
+ * options which do not run Zipper on the Doop results in the cache, or
+ * whose paths are outside the working directory of the daemon.
+ *
+ * The resident analysis is reloaded when the options to load it, or its
+ * inputs, e.g., the dumps of a new Doop run, change since it is loaded.
+ */
+public class Daemon {
+
+    public static final String DEFAULT_SESSION_FILE = "zipper-daemon.session";
+    public static final String SHUTDOWN = "shutdown";
+    public static final String EXIT_PREFIX = "#zipper-exit ";
+    // time to wait for the request after a client connects
+    private static final int REQUEST_TIMEOUT = 10000;
+
+    // the directory which holds all paths of the requests
+    private final Path root;
+    // options which decide the loaded analysis, and the stamp of its
+    // inputs taken before they are read
+    private String residentKey;
+    private String residentStamp;
+    private PointsToAnalysis resident;
+    // object flow graphs of resident, keyed by whether they are condensed
+    private final Map<Boolean, ObjectFlowGraph> residentOFGs = new HashMap<>();
+
+    public Daemon() throws IOException {
+        this.root = new File(".").getCanonicalFile().toPath();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 0;
+        File sessionFile = new File(DEFAULT_SESSION_FILE);
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i].equals("-port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-session") && i + 1 < args.length) {
+                sessionFile = new File(args[++i]);
+            } else {
+                System.err.println("usage: Daemon [-port <port>] [-session <file>]");
+                System.exit(1);
+            }
+        }
+        new Daemon().serve(port, sessionFile);
+    }
+
+    public void serve(int port, File sessionFile) throws IOException {
+        String token = newToken();
+        try (ServerSocket server = new ServerSocket(
+                port, 50, InetAddress.getLoopbackAddress())) {
+            writeSession(sessionFile, server.getLocalPort() + " " + token);
+            System.out.println("Zipper daemon listens on port "
+                    + server.getLocalPort() + ", session file: " + sessionFile);
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    socket.setSoTimeout(REQUEST_TIMEOUT);
+                    BufferedReader in = new BufferedReader(new InputStreamReader(
+                            socket.getInputStream(), StandardCharsets.UTF_8));
+                    PrintStream out = new PrintStream(
+                            socket.getOutputStream(), true, "UTF-8");
+                    String auth = in.readLine();
+                    if (auth == null || !MessageDigest.isEqual(
+                            auth.getBytes(StandardCharsets.UTF_8),
+                            token.getBytes(StandardCharsets.UTF_8))) {
+                        System.err.println("Rejected a request without the token");
+                        out.println("Request rejected: invalid session token");
+                        out.println(EXIT_PREFIX + 1);
+                        continue;
+                    }
+                    String request = in.readLine();
+                    if (request == null) {
+                        continue;
+                    }
+                    if (request.equals(SHUTDOWN)) {
+                        out.println(EXIT_PREFIX + 0);
+                        System.out.println("Zipper daemon shuts down");
+                        return;
+                    }
+                    int status = handle(request.split("\t"), out);
+                    out.println(EXIT_PREFIX + status);
+                } catch (IOException e) {
+                    // the client is gone, serve the next one
+                    System.err.println("Request fails, caused by "
+                            + e.getMessage());
+                }
+            }
+        } finally {
+            sessionFile.delete();
+        }
+    }
+
+    /**
+     * Run Zipper with given options, where the output is sent to out.
+     * @return the exit status of the run.
+     */
+    private int handle(String[] args, PrintStream out) {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        System.out.println("Request: " + String.join(" ", args));
+        System.setOut(out);
+        System.setErr(out);
+        try {
+            Global.reset();
+            Options opt = Options.parse(args);
+            checkAccepted(opt);
+            System.out.printf("Analyze %s ...\n", opt.getApp());
+            PointsToAnalysis pta = pointsToAnalysisOf(opt);
+            Main.run(opt, pta, objectFlowGraphOf(pta));
+            return 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 1;
+        } catch (Error e) {
+            // the resident analysis may be broken, e.g., by running out
+            // of memory, thus drop it
+            release();
+            e.printStackTrace();
+            return 1;
+        } finally {
+            System.out.flush();
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+    }
+
+    /**
+     * Check that opt runs Zipper on the Doop results in a cache directory,
+     * and that its paths are in the root directory.
+     */
+    private void checkAccepted(Options opt) throws IOException {
+        if (!DoopPointsToAnalysis.class.getName().equals(opt.getPTA())) {
+            throw new RuntimeException("Daemon only accepts -pta "
+                    + DoopPointsToAnalysis.class.getName());
+        }
+        if (opt.getDbPath() != null || opt.getDumpPath() != null
+                || opt.getDbPath2() != null || opt.getApp2() != null) {
+            throw new RuntimeException("Daemon only accepts the Doop " +
+                    "results in the cache directory");
+        }
+        // the names are parts of the file names in the directories
+        checkName("-app", opt.getApp());
+        checkName("-a", opt.getAnalysis());
+        checkInRoot("-cache", opt.getCachePath());
+        checkInRoot("-out", opt.getOutPath());
+    }
+
+    private static void checkName(String option, String name) {
+        if (name == null || name.contains("/")
+                || name.contains(File.separator)) {
+            throw new RuntimeException("Invalid " + option + ": " + name);
+        }
+    }
+
+    private void checkInRoot(String option, String path) throws IOException {
+        if (path == null) {
+            throw new RuntimeException("Daemon requires option " + option);
+        }
+        if (!new File(path).getCanonicalFile().toPath().startsWith(root)) {
+            throw new RuntimeException("Path of " + option + " is outside "
+                    + root + ": " + path);
+        }
+    }
+
+    private PointsToAnalysis pointsToAnalysisOf(Options opt) {
+        String key = String.join("\t", String.valueOf(opt.getPTA()),
+                String.valueOf(opt.getDbPath()),
+                String.valueOf(opt.getCachePath()),
+                String.valueOf(opt.getApp()),
+                String.valueOf(Global.isFactCache()));
+        if (resident != null && key.equals(residentKey)
+                && residentStamp != null
+                && residentStamp.equals(resident.inputStamp())) {
+            System.out.println("Reusing resident points-to analysis");
+            return resident;
+        }
+        release(); // only one analysis is resident
+        resident = Main.readPointsToAnalysis(opt);
+        residentKey = key;
+        // The stamp is taken before the inputs are read, thus the
+        // inputs changed by other processes since then are noticed.
+        residentStamp = resident.loadedInputStamp();
+        return resident;
+    }
+
+    private ObjectFlowGraph objectFlowGraphOf(PointsToAnalysis pta) {
+        ObjectFlowGraph ofg = residentOFGs.get(Global.isCondenseOFG());
+        if (ofg == null) {
+            ofg = Zipper.buildObjectFlowGraph(pta);
+            residentOFGs.put(Global.isCondenseOFG(), ofg);
+        } else {
+            System.out.println("Reusing resident OFG (Object Flow Graph)");
+            Zipper.outputObjectFlowGraphSize(ofg);
+        }
+        return ofg;
+    }
+
+    private void release() {
+        resident = null;
+        residentKey = null;
+        residentStamp = null;
+        residentOFGs.clear();
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        return token.toString();
+    }
+
+    /**
+     * Write session into file, which only the owner can read and write.
+     */
+    private static void writeSession(File file, String session)
+            throws IOException {
+        Path path = file.toPath();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.deleteIfExists(path);
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+            Files.createFile(path);
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(false, false);
+            file.setWritable(true, true);
+        }
+        Files.write(path, (session + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package ptatoolkit.zipper;
+
+import ptatoolkit.Global;
+import ptatoolkit.Options;
+import ptatoolkit.doop.BloxbatchEngine;
+import ptatoolkit.doop.DataBase;
+import ptatoolkit.doop.DumpFileEngine;
+import ptatoolkit.doop.QueryEngine;
+import ptatoolkit.util.ANSIColor;
+import ptatoolkit.util.Timer;
+import ptatoolkit.zipper.doop.DoopPointsToAnalysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Exports the results of Doop required by Zipper into the fact cache
+ * in one batch, so that Zipper reads them without text dumps.
+ *
+ * The results are evaluated on the Doop database given by -db, or read
+ * from the text dumps in the directory given by -dumps.
+ */
+public class Export {
+
+    public static void main(String[] args) throws IOException {
+        Options opt = Options.parse(args);
+        if (opt.getApp() == null || opt.getCachePath() == null
+                || (opt.getDbPath() == null) == (opt.getDumpPath() == null)) {
+            System.err.println("usage: Export -app <app> -cache <dir> " +
+                    "(-db <dir> | -dumps <dir>)");
+            System.exit(1);
+        }
+        if (!Global.isFactCache()) {
+            throw new RuntimeException("Exporting requires the fact cache");
+        }
+        Files.createDirectories(new File(opt.getCachePath()).toPath());
+        Timer exportTimer = new Timer("Export Timer");
+        System.out.printf("Exporting Doop results of %s ...\n", opt.getApp());
+        exportTimer.start();
+        try (QueryEngine engine = opt.getDbPath() != null ?
+                new BloxbatchEngine(new File(opt.getDbPath())) :
+                new DumpFileEngine(new File(opt.getDumpPath()), opt.getApp())) {
+            DataBase db = new DataBase(engine,
+                    new File(opt.getCachePath()), opt.getApp());
+            db.export(DoopPointsToAnalysis.REQUIRED_QUERIES);
+        }
+        exportTimer.stop();
+        System.out.print(ANSIColor.BOLD + ANSIColor.YELLOW
+                + "Export finishes, time: " + ANSIColor.RESET);
+        System.out.print(ANSIColor.BOLD + ANSIColor.GREEN);
+        System.out.printf("%.2fs", exportTimer.inSecond());
+        System.out.println(ANSIColor.RESET);
+    }
+}
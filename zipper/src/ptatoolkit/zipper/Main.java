@@ -17,9 +17,11 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Comparator;
+import java.util.Map;
 import java.util.Set;
 
 public class Main {
@@ -33,9 +35,17 @@ public class Main {
 
     public static void run(Options opt) throws IOException {
         System.out.printf("Analyze %s ...\n", opt.getApp());
-        String zipperStr = Global.isExpress() ? "Zipper-e" : "Zipper";
+        run(opt, readPointsToAnalysis(opt), null);
+    }
 
-        PointsToAnalysis pta = readPointsToAnalysis(opt);
+    /**
+     * Run Zipper on the loaded points-to analysis.
+     * @param ofg the object flow graph of pta, or null if it is
+     *            to be built by Zipper.
+     */
+    public static void run(Options opt, PointsToAnalysis pta,
+                           ObjectFlowGraph ofg) throws IOException {
+        String zipperStr = Global.isExpress() ? "Zipper-e" : "Zipper";
         Timer zipperTimer = new Timer("Zipper Timer");
         System.out.println(ANSIColor.BOLD + ANSIColor.YELLOW
                 + zipperStr + " starts ..." + ANSIColor.RESET);
@@ -44,8 +54,11 @@ public class Main {
                 ANSIColor.BOLD + ANSIColor.GREEN + flows + ANSIColor.RESET);
         Zipper.outputNumberOfClasses(pta);
         zipperTimer.start();
-        Zipper zipper = new Zipper(pta);
-        Set<Method> pcm = zipper.analyze();
+        Zipper zipper = ofg != null ? new Zipper(pta, ofg) : new Zipper(pta);
+        Set<Method> pcm = Global.isIncremental() ?
+                zipper.analyzeIncrementally(
+                        new File(opt.getCachePath(), "zipper-state")) :
+                zipper.analyze();
         zipperTimer.stop();
         System.out.print(ANSIColor.BOLD + ANSIColor.YELLOW
                 + zipperStr + " finishes, analysis time: " + ANSIColor.RESET);
@@ -54,11 +67,11 @@ public class Main {
         System.out.println(ANSIColor.RESET);
 
         if (Global.isDebug()) {
-            ObjectFlowGraph ofg = Zipper.buildObjectFlowGraph(pta);
+            ObjectFlowGraph fullOFG = Zipper.buildObjectFlowGraph(pta);
             System.out.println("Dumping object flow graph ...");
             String output = Paths.get(opt.getOutPath(), opt.getApp() + "-FG.dot")
                     .toString();
-            Dumper.dumpObjectFlowGraph(ofg, output);
+            Dumper.dumpObjectFlowGraph(fullOFG, output);
         }
 
         String expressSuffix = "-express";
@@ -75,6 +88,45 @@ public class Main {
                 zipperPCMOutput.getPath());
         System.out.println();
         writeZipperResults(pcm, zipperPCMOutput);
+
+        if (Global.getExpressSweep() != null) {
+            writeExpressSweepResults(opt, zipper);
+        }
+    }
+
+    /**
+     * Write the precision-critical methods of Zipper-e with each threshold
+     * of the sweep, and a summary of their sizes and predicted costs.
+     */
+    private static void writeExpressSweepResults(Options opt, Zipper zipper)
+            throws FileNotFoundException {
+        String flowSuffix = Global.getFlow() == null ? "" : "-" + Global.getFlow();
+        Map<Float, Set<Method>> results =
+                zipper.sweepExpressThresholds(Global.getExpressSweep());
+        File summaryOutput = new File(opt.getOutPath(),
+                String.format("%s-ZipperExpressSweep%s%s.tsv",
+                        opt.getApp(), opt.getAnalysis(), flowSuffix));
+        System.out.println("Sweeping Zipper-e thresholds ...");
+        PrintWriter summary = new PrintWriter(summaryOutput);
+        summary.write("threshold\t#precision-critical methods\tpoints-to cost" + EOL);
+        for (Map.Entry<Float, Set<Method>> entry : results.entrySet()) {
+            // plain notation, e.g., 0.0001 instead of 1.0E-4
+            String threshold = new BigDecimal(entry.getKey().toString())
+                    .stripTrailingZeros().toPlainString();
+            Set<Method> pcm = entry.getValue();
+            long cost = zipper.getAccumulativePointsToSetSize(pcm);
+            File pcmOutput = new File(opt.getOutPath(),
+                    String.format("%s-ZipperPrecisionCriticalMethod%s-express-%s%s.facts",
+                            opt.getApp(), opt.getAnalysis(), threshold, flowSuffix));
+            System.out.printf("threshold %s: #precision-critical methods: %d, " +
+                    "points-to cost: %d\n", threshold, pcm.size(), cost);
+            writeZipperResults(pcm, pcmOutput);
+            summary.write(threshold + "\t" + pcm.size() + "\t" + cost + EOL);
+        }
+        summary.close();
+        System.out.printf("Writing summary of the sweep to %s ...\n",
+                summaryOutput.getPath());
+        System.out.println();
     }
 
     public static PointsToAnalysis readPointsToAnalysis(Options opt) {
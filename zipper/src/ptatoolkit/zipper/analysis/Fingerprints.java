@@ -0,0 +1,220 @@
+package ptatoolkit.zipper.analysis;
+
+import ptatoolkit.Global;
+import ptatoolkit.pta.basic.InstanceMethod;
+import ptatoolkit.pta.basic.Method;
+import ptatoolkit.pta.basic.Obj;
+import ptatoolkit.pta.basic.Type;
+import ptatoolkit.pta.basic.Variable;
+import ptatoolkit.zipper.flowgraph.InstanceFieldNode;
+import ptatoolkit.zipper.flowgraph.Node;
+import ptatoolkit.zipper.flowgraph.ObjectFlowGraph;
+import ptatoolkit.zipper.flowgraph.VarNode;
+import ptatoolkit.zipper.pta.PointsToAnalysis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * 64-bit fingerprints of the inputs of the flow analysis of a type,
+ * which are stable across runs, i.e., they are computed from the names
+ * of program elements instead of their IDs.
+ *
+ * The type fingerprint covers the inputs which do not depend on the
+ * OFG: the IN/OUT methods with their parameters and return variables,
+ * the PCE methods, the allocatees and the this variables of the methods
+ * invoked on the type. The fingerprint of an OFG node covers everything
+ * that the flow analysis reads when it visits the node: its own facts,
+ * its out edges, and the facts of their targets which decide whether
+ * the edges are followed. If both fingerprints of a type are unchanged
+ * over the nodes visited in the previous run, the flow analysis would
+ * visit the same nodes and find the same precision-critical methods.
+ *
+ * Fingerprints of sets are sums of the fingerprints of their elements,
+ * thus they do not depend on iteration order.
+ */
+class Fingerprints {
+
+    private final PointsToAnalysis pta;
+    private final ObjectAllocationGraph oag;
+    private final PotentialContextElement pce;
+    private final ObjectFlowGraph ofg;
+    // caches indexed by node IDs, 0 means absent
+    private final AtomicLongArray nodeFingerprints;
+    private final AtomicReferenceArray<String> nodeKeys;
+    private Map<String, Node> nodesByKey;
+
+    Fingerprints(PointsToAnalysis pta, ObjectAllocationGraph oag,
+                 PotentialContextElement pce, ObjectFlowGraph ofg) {
+        this.pta = pta;
+        this.oag = oag;
+        this.pce = pce;
+        this.ofg = ofg;
+        this.nodeFingerprints = new AtomicLongArray(ofg.nrNodes());
+        this.nodeKeys = new AtomicReferenceArray<>(ofg.nrNodes());
+    }
+
+    /**
+     * @return the name of node, which identifies it across runs.
+     */
+    String keyOf(Node node) {
+        String key = nodeKeys.get(node.getID());
+        if (key == null) {
+            key = node.toString();
+            nodeKeys.set(node.getID(), key);
+        }
+        return key;
+    }
+
+    /**
+     * @return the node of given key, or null if it is absent.
+     */
+    synchronized Node nodeOf(String key) {
+        if (nodesByKey == null) {
+            nodesByKey = new HashMap<>(ofg.nrNodes() * 2);
+            for (Node node : ofg.allNodes()) {
+                nodesByKey.put(keyOf(node), node);
+            }
+        }
+        return nodesByKey.get(key);
+    }
+
+    long ofType(Type type, Set<Method> inms, Set<Method> outms) {
+        long h = ofName(type);
+        h = combine(h, sum(inms, m -> combine(ofName(m),
+                sum(m.getParameters(), this::ofVarInput))));
+        h = combine(h, sum(outms, m -> combine(ofName(m),
+                sum(m.getRetVars(), this::ofVar))));
+        h = combine(h, sum(pce.PCEMethodsOf(type), this::ofName));
+        h = combine(h, sum(oag.allocateesOf(type), this::ofName));
+        h = combine(h, sum(pta.methodsInvokedOn(type), m -> m.isInstance() ?
+                ofVar(((InstanceMethod) m).getThis()) : ofName(m)));
+        return h;
+    }
+
+    /**
+     * @return the fingerprint of given nodes, which is 0 if
+     * any of the nodes is absent.
+     */
+    long ofNodes(Collection<String> keys) {
+        long sum = 0;
+        for (String key : keys) {
+            Node node = nodeOf(key);
+            if (node == null) {
+                return 0;
+            }
+            sum += ofNode(node);
+        }
+        return sum;
+    }
+
+    long ofNode(Node node) {
+        long h = nodeFingerprints.get(node.getID());
+        if (h == 0) {
+            h = combine(ofString(keyOf(node)), ofFacts(node));
+            long edges = 0;
+            for (int e = ofg.outEdgeStart(node); e < ofg.outEdgeEnd(node); ++e) {
+                Node target = ofg.targetOf(e);
+                edges += mix(combine(combine(ofg.kindOf(e).ordinal(),
+                        ofString(keyOf(target))), ofTargetFacts(target)));
+            }
+            h = combine(h, edges);
+            if (h == 0) {
+                h = 1;
+            }
+            nodeFingerprints.set(node.getID(), h);
+        }
+        return h;
+    }
+
+    private long ofFacts(Node node) {
+        if (node instanceof VarNode) {
+            Variable var = ((VarNode) node).getVar();
+            long h = combine(ofName(pta.declaringMethodOf(var)), ofVarInput(var));
+            if (Global.isEnableUnwrappedFlow()) {
+                h = combine(h, sum(pta.returnToVariablesOf(var), this::ofVar));
+            }
+            return h;
+        } else {
+            return ofBase(((InstanceFieldNode) node).getBase());
+        }
+    }
+
+    /**
+     * @return fingerprint of the facts deciding whether an edge to
+     * target is followed.
+     */
+    private long ofTargetFacts(Node target) {
+        if (target instanceof VarNode) {
+            return ofName(pta.declaringMethodOf(((VarNode) target).getVar()));
+        } else {
+            return ofBase(((InstanceFieldNode) target).getBase());
+        }
+    }
+
+    private long ofBase(Obj base) {
+        long h = ofName(base.getType());
+        h = combine(h, ofName(pta.containingMethodOf(base)));
+        return combine(h, ofVar(pta.assignedVarOf(base)));
+    }
+
+    /**
+     * Points-to sets are only read by the unwrapped flows.
+     */
+    private long ofVarInput(Variable var) {
+        long h = ofVar(var);
+        if (Global.isEnableUnwrappedFlow()) {
+            h = combine(h, sum(pta.pointsToSetOf(var), this::ofName));
+        }
+        return h;
+    }
+
+    /**
+     * The flow analysis skips the variables absent in the OFG.
+     */
+    private long ofVar(Variable var) {
+        return combine(ofName(var), ofg.nodeOf(var) != null ? 1 : 0);
+    }
+
+    private long ofName(Object element) {
+        return element != null ? ofString(element.toString()) : 0;
+    }
+
+    private static <T> long sum(Collection<? extends T> elems,
+                               ToLongFunction<T> f) {
+        long sum = 0;
+        for (T elem : elems) {
+            sum += mix(f.applyAsLong(elem));
+        }
+        return sum;
+    }
+
+    static long ofString(String s) {
+        // FNV-1a over the UTF-8 bytes
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long combine(long h1, long h2) {
+        return mix(h1 * 31 + h2);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,198 @@
+package ptatoolkit.zipper.analysis;
+
+import ptatoolkit.pta.basic.Type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The per-type results of Zipper, which are saved for the next run
+ * together with the fingerprints of their inputs, see {@link Fingerprints}.
+ *
+ * The state is saved in file "zipper.state" of a state directory. It
+ * is only loaded if it was saved with the same signature, i.e., the
+ * options which affect the per-type results.
+ */
+class IncrementalState {
+
+    private static final int MAGIC = 0x5a495332; // "ZIS2"
+    private static final String FILE_NAME = "zipper.state";
+
+    private final String signature;
+    // stamp and digest of the inputs of points-to analysis, may be null
+    private final String inputStamp;
+    private final String inputDigest;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+
+    IncrementalState(String signature, String inputStamp, String inputDigest) {
+        this.signature = signature;
+        this.inputStamp = inputStamp;
+        this.inputDigest = inputDigest;
+    }
+
+    String getInputStamp() {
+        return inputStamp;
+    }
+
+    String getInputDigest() {
+        return inputDigest;
+    }
+
+    Record get(Type type) {
+        return records.get(type.toString());
+    }
+
+    void put(Type type, Record record) {
+        records.put(type.toString(), record);
+    }
+
+    int size() {
+        return records.size();
+    }
+
+    /**
+     * The results of the flow analysis of a type.
+     */
+    static class Record {
+
+        final int nrPFGNodes;
+        final int nrPFGEdges;
+        final long typeFingerprint;
+        final long nodesFingerprint;
+        // keys of the nodes visited by the flow analysis
+        final List<String> nodes;
+        // names of the precision-critical methods
+        final List<String> pcm;
+
+        Record(int nrPFGNodes, int nrPFGEdges,
+               long typeFingerprint, long nodesFingerprint,
+               List<String> nodes, List<String> pcm) {
+            this.nrPFGNodes = nrPFGNodes;
+            this.nrPFGEdges = nrPFGEdges;
+            this.typeFingerprint = typeFingerprint;
+            this.nodesFingerprint = nodesFingerprint;
+            this.nodes = nodes;
+            this.pcm = pcm;
+        }
+    }
+
+    /**
+     * @return the state saved in dir, or an empty state if there is no
+     * usable state, e.g., it was saved with another signature.
+     */
+    static IncrementalState load(File dir, String signature) {
+        File file = new File(dir, FILE_NAME);
+        if (!file.exists()) {
+            return new IncrementalState(signature, null, null);
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(signature)) {
+                System.out.println("Ignoring incompatible Zipper state " + file);
+                return new IncrementalState(signature, null, null);
+            }
+            String stamp = in.readUTF();
+            String digest = in.readUTF();
+            IncrementalState state = new IncrementalState(signature,
+                    stamp.isEmpty() ? null : stamp,
+                    digest.isEmpty() ? null : digest);
+            String[] keys = new String[in.readInt()];
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = in.readUTF();
+            }
+            int nrRecords = in.readInt();
+            for (int r = 0; r < nrRecords; ++r) {
+                String type = in.readUTF();
+                int nrPFGNodes = in.readInt();
+                int nrPFGEdges = in.readInt();
+                long typeFingerprint = in.readLong();
+                long nodesFingerprint = in.readLong();
+                int nrNodes = in.readInt();
+                List<String> nodes = new ArrayList<>(nrNodes);
+                for (int i = 0; i < nrNodes; ++i) {
+                    nodes.add(keys[in.readInt()]);
+                }
+                int nrPCM = in.readInt();
+                List<String> pcm = new ArrayList<>(nrPCM);
+                for (int i = 0; i < nrPCM; ++i) {
+                    pcm.add(in.readUTF());
+                }
+                state.records.put(type, new Record(nrPFGNodes, nrPFGEdges,
+                        typeFingerprint, nodesFingerprint, nodes, pcm));
+            }
+            return state;
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable Zipper state " + file
+                    + ": " + e.getMessage());
+            return new IncrementalState(signature, null, null);
+        }
+    }
+
+    /**
+     * Save this state to dir.
+     */
+    void save(File dir) {
+        // node keys shared by the records
+        Map<String, Integer> keyIndexes = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        records.values().forEach(record -> record.nodes.forEach(key -> {
+            if (!keyIndexes.containsKey(key)) {
+                keyIndexes.put(key, keys.size());
+                keys.add(key);
+            }
+        }));
+        File file = new File(dir, FILE_NAME);
+        File tmpFile = new File(dir, FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(dir.toPath());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(signature);
+                out.writeUTF(inputStamp != null ? inputStamp : "");
+                out.writeUTF(inputDigest != null ? inputDigest : "");
+                out.writeInt(keys.size());
+                for (String key : keys) {
+                    out.writeUTF(key);
+                }
+                out.writeInt(records.size());
+                for (Map.Entry<String, Record> entry : records.entrySet()) {
+                    Record record = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(record.nrPFGNodes);
+                    out.writeInt(record.nrPFGEdges);
+                    out.writeLong(record.typeFingerprint);
+                    out.writeLong(record.nodesFingerprint);
+                    out.writeInt(record.nodes.size());
+                    for (String key : record.nodes) {
+                        out.writeInt(keyIndexes.get(key));
+                    }
+                    out.writeInt(record.pcm.size());
+                    for (String method : record.pcm) {
+                        out.writeUTF(method);
+                    }
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Saving Zipper state to " + file +
+                    " fails, caused by " + e.getMessage());
+        }
+    }
+}
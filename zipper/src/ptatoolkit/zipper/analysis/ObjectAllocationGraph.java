@@ -4,35 +4,90 @@ import ptatoolkit.Global;
 import ptatoolkit.pta.basic.Method;
 import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Type;
+import ptatoolkit.pta.util.BitmapSet;
+import ptatoolkit.pta.util.SetColumn;
+import ptatoolkit.pta.util.ValueColumn;
+import ptatoolkit.util.CompressedBitSet;
+import ptatoolkit.util.IntStack;
 import ptatoolkit.util.SetFactory;
+import ptatoolkit.util.graph.ComponentLevels;
 import ptatoolkit.util.graph.DirectedGraph;
-import ptatoolkit.util.graph.MergedNode;
-import ptatoolkit.util.graph.SCCMergedGraph;
-import ptatoolkit.util.graph.TopologicalSorter;
+import ptatoolkit.util.graph.IntStronglyConnectedComponents;
 import ptatoolkit.zipper.pta.PointsToAnalysis;
 
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 public class ObjectAllocationGraph implements DirectedGraph<Obj> {
 
-    private static final String PREDS = "Predecessors";
-    private static final String SUCCS = "Successors";
-    private static final String ALLOCATEES = "Allocatees";
-
     private final PointsToAnalysis pta;
+    private final StaticCalleeClosure staticCalleeClosure;
+    private final SetColumn<Obj> preds = new SetColumn<>();
+    private final SetColumn<Obj> succs = new SetColumn<>();
+    private final ValueColumn<BitmapSet<Obj>> allocatees = new ValueColumn<>();
     private final Map<Type, Set<Obj>> typeAllocatees = new HashMap<>();
+    // equal sets of allocatees are shared
+    private final SetFactory<Obj> setFactory = new SetFactory<>();
+    // maps the ID of each object to the object
+    private Obj[] objects = new Obj[64];
+    private int maxID = -1;
+    private final IntFunction<Obj> objectOf = id -> objects[id];
+    // the graph in CSR form over the IDs of objects, i.e., the successors
+    // of object id are succIDs[offsets[id] .. offsets[id + 1]), its SCCs,
+    // and their levels, which are shared with PotentialContextElement
+    private int[] offsets;
+    private int[] succIDs;
+    private IntStronglyConnectedComponents scc;
+    private ComponentLevels levels;
 
     ObjectAllocationGraph(PointsToAnalysis pta) {
         this.pta = pta;
+        this.staticCalleeClosure = new StaticCalleeClosure(pta);
         init();
     }
 
+    StaticCalleeClosure getStaticCalleeClosure() {
+        return staticCalleeClosure;
+    }
+
+    /**
+     * @return the object of given ID, or null if it is not in this graph.
+     */
+    Obj objectOf(int id) {
+        return objects[id];
+    }
+
+    IntStronglyConnectedComponents getSCC() {
+        return scc;
+    }
+
+    ComponentLevels getComponentLevels() {
+        return levels;
+    }
+
+    /**
+     * @return the index of the first successor of object id, see succIDAt()
+     */
+    int succStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * @return the index after the last successor of object id
+     */
+    int succEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    int succIDAt(int i) {
+        return succIDs[i];
+    }
+
     @Override
     public Set<Obj> allNodes() {
         return pta.allObjects();
@@ -40,16 +95,17 @@ public class ObjectAllocationGraph implements DirectedGraph<Obj> {
 
     @Override
     public Set<Obj> predsOf(Obj obj) {
-        return obj.getAttributeSet(PREDS);
+        return preds.get(obj);
     }
 
     @Override
     public Set<Obj> succsOf(Obj obj) {
-        return obj.getAttributeSet(SUCCS);
+        return succs.get(obj);
     }
 
     public Set<Obj> allocateesOf(Obj obj) {
-        return obj.getAttributeSet(ALLOCATEES);
+        Set<Obj> objs = allocatees.get(obj);
+        return objs != null ? objs : Collections.emptySet();
     }
 
     public Set<Obj> allocateesOf(Type type) {
@@ -57,74 +113,126 @@ public class ObjectAllocationGraph implements DirectedGraph<Obj> {
     }
 
     private void init() {
-        Map<Obj, Set<Method>> invokedMethods = computeInvokedMethods();
-        invokedMethods.entrySet()
+        pta.allObjects().forEach(this::register);
+        BitSet invokedMethods = new BitSet();
+        pta.allObjects()
                 .stream()
-                .filter(e -> !isArray(e.getKey()))
-                .forEach(e -> {
-                    Obj obj = e.getKey();
-                    Set<Method> methods = e.getValue();
-                    methods.stream()
-                            .map(pta::objectsAllocatedIn)
-                            .flatMap(Collection::stream)
-                            .forEach(o -> {
-                                obj.addToAttributeSet(SUCCS, o);
-                                o.addToAttributeSet(PREDS, obj);
-                            });
+                .filter(obj -> !isArray(obj))
+                .forEach(obj -> {
+                    staticCalleeClosure.addInvokedMethods(obj, invokedMethods);
+                    for (int id = invokedMethods.nextSetBit(0); id >= 0;
+                         id = invokedMethods.nextSetBit(id + 1)) {
+                        Method method = staticCalleeClosure.methodOf(id);
+                        pta.objectsAllocatedIn(method).forEach(o -> {
+                            register(o);
+                            succs.add(obj, o);
+                            preds.add(o, obj);
+                        });
+                    }
+                    invokedMethods.clear();
                 });
+        succs.freeze();
+        preds.freeze();
+        objects = Arrays.copyOf(objects, maxID + 1);
+        computeComponents();
         computeAllocatees();
+        Map<Type, CompressedBitSet> typeBits = new HashMap<>();
         pta.allObjects().forEach(obj -> {
-            Type type = obj.getType();
-            typeAllocatees.putIfAbsent(type, new HashSet<>());
-            typeAllocatees.get(type).addAll(allocateesOf(obj));
+            CompressedBitSet bits = typeBits.computeIfAbsent(
+                    obj.getType(), type -> new CompressedBitSet());
+            BitmapSet<Obj> objs = allocatees.get(obj);
+            if (objs != null) {
+                bits.or(objs.getBits());
+            }
+        });
+        typeBits.forEach((type, bits) -> {
+            bits.trim();
+            typeAllocatees.put(type, objectSetOf(bits));
         });
+        if (Global.isDebug()) {
+            System.out.println("Allocatee sets: " + setFactory);
+        }
     }
 
-    private Map<Obj, Set<Method>> computeInvokedMethods() {
-        Map<Obj, Set<Method>> invokedMethods = new HashMap<>();
-        pta.allObjects().forEach(obj -> {
-            Set<Method> methods = new HashSet<>();
-            Queue<Method> queue = new LinkedList<>(pta.methodsInvokedOn(obj));
-            while (!queue.isEmpty()) {
-                Method method = queue.poll();
-                methods.add(method);
-                pta.calleesOf(method).stream()
-                        .filter(m -> m.isStatic() && !methods.contains(m))
-                        .forEach(queue::offer);
+    private void computeComponents() {
+        int nrNodes = objects.length;
+        offsets = new int[nrNodes + 1];
+        IntStack succList = new IntStack(nrNodes);
+        for (int id = 0; id < nrNodes; ++id) {
+            offsets[id] = succList.size();
+            if (objects[id] != null) {
+                for (Obj succ : succsOf(objects[id])) {
+                    succList.push(succ.getID());
+                }
             }
-            invokedMethods.put(obj, methods);
-        });
-        return invokedMethods;
+        }
+        offsets[nrNodes] = succList.size();
+        succIDs = succList.toArray();
+        scc = new IntStronglyConnectedComponents(nrNodes, offsets, succIDs,
+                Math.max(Global.getThread(), 1));
+        levels = new ComponentLevels(scc, offsets, succIDs);
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private void computeAllocatees() {
-        SCCMergedGraph<Obj> mg = new SCCMergedGraph<>(this);
-        TopologicalSorter<MergedNode<Obj>> sorter = new TopologicalSorter<>();
-        SetFactory<Obj> setFactory = new SetFactory<>();
-        sorter.sort(mg, true).forEach(node -> {
-            Set<Obj> allocatees = setFactory.get(getAllocatees(node, mg));
-            node.getContent()
-                    .forEach(obj -> obj.setAttribute(ALLOCATEES, allocatees));
-        });
+        // The allocatees of the SCCs are folded from the successors
+        // to their predecessors, level by level in parallel.
+        BitmapSet<Obj>[] results = new BitmapSet[scc.nrComponents()];
+        levels.forEach(ComponentLevels.poolOf(Global.getThread()),
+                c -> results[c] = getAllocatees(c, results));
+        for (int c = 0; c < results.length; ++c) {
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                Obj obj = objects[scc.memberAt(i)];
+                if (obj != null) {
+                    allocatees.set(obj, results[c]);
+                }
+            }
+        }
     }
 
-    private Set<Obj> getAllocatees(MergedNode<Obj> node,
-                                   SCCMergedGraph<Obj> mg) {
-        Set<Obj> allocatees = new HashSet<>();
-        mg.succsOf(node).forEach(n -> {
-            // direct allocatees
-            allocatees.addAll(n.getContent());
-            // indirect allocatees
-            Obj o = n.getContent().iterator().next();
-            allocatees.addAll(allocateesOf(o));
-        });
-        Obj obj = node.getContent().iterator().next();
-        if (node.getContent().size() > 1 ||
-                succsOf(obj).contains(obj)) { // self-loop
-            // The merged node is a true SCC
-            allocatees.addAll(node.getContent());
+    /**
+     * @return the allocatees of component c, where the allocatees of its
+     * successors have been computed. Equal sets are shared as soon as
+     * they are computed.
+     */
+    private BitmapSet<Obj> getAllocatees(int c, BitmapSet<Obj>[] results) {
+        CompressedBitSet allocatees = new CompressedBitSet();
+        for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+            int v = scc.memberAt(i);
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                int succ = scc.componentOf(succIDs[e]);
+                if (succ != c) {
+                    // direct allocatees, and indirect allocatees, which
+                    // include the members of a true SCC
+                    allocatees.add(succIDs[e]);
+                    allocatees.or(results[succ].getBits());
+                }
+            }
+        }
+        if (scc.isTrueComponent(c)) {
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                allocatees.add(scc.memberAt(i));
+            }
+        }
+        allocatees.trim();
+        return objectSetOf(allocatees);
+    }
+
+    /**
+     * @return the set of the objects of given IDs, which is shared with
+     * the equal sets of allocatees and objects given to this method.
+     */
+    BitmapSet<Obj> objectSetOf(CompressedBitSet ids) {
+        return setFactory.get(new BitmapSet<>(ids, objectOf));
+    }
+
+    private void register(Obj obj) {
+        int id = obj.getID();
+        if (id >= objects.length) {
+            objects = Arrays.copyOf(objects, Math.max(id + 1, objects.length * 2));
         }
-        return allocatees;
+        objects[id] = obj;
+        maxID = Math.max(maxID, id);
     }
 
     private boolean isArray(Obj obj) {
@@ -4,18 +4,20 @@ import ptatoolkit.Global;
 import ptatoolkit.pta.basic.Method;
 import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Type;
+import ptatoolkit.pta.util.DenseBitmapSet;
+import ptatoolkit.pta.util.ValueColumn;
+import ptatoolkit.util.CompressedBitSet;
 import ptatoolkit.util.SetFactory;
-import ptatoolkit.util.graph.MergedNode;
-import ptatoolkit.util.graph.SCCMergedGraph;
-import ptatoolkit.util.graph.TopologicalSorter;
+import ptatoolkit.util.graph.ComponentLevels;
+import ptatoolkit.util.graph.IntStronglyConnectedComponents;
 import ptatoolkit.zipper.pta.PointsToAnalysis;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
  * For each object o, this class compute the set of methods
@@ -23,17 +25,22 @@ import java.util.Set;
  *
  * Conversely, for each method m, this class compute the
  * set of objects which could potentially be its context element.
+ *
+ * The sets of PCE methods are bitmaps over the IDs of methods, which
+ * are united word by word along the object allocation graph, and equal
+ * sets are shared.
  */
 public class PotentialContextElement {
 
-    private static final String PCE = "Potential context element";
-
     private final PointsToAnalysis pta;
-    // This map maps each object to the methods invoked on it.
-    // For instance methods, they are the methods whose receiver is the object.
-    // For static methods, they are the methods reachable from instance methods.
-    private Map<Obj, Set<Method>> invokedMethods;
+    private final ValueColumn<DenseBitmapSet<Method>> pceMethods = new ValueColumn<>();
+    private final ValueColumn<Set<Obj>> pceObjects = new ValueColumn<>();
     private Map<Type, Set<Method>> typePCEMethods = new HashMap<>();
+    // equal sets of PCE methods are shared
+    private final SetFactory<Method> setFactory = new SetFactory<>();
+    private StaticCalleeClosure staticCalleeClosure;
+    // maps the ID of each PCE method to the method
+    private IntFunction<Method> methodOf;
 
     PotentialContextElement(PointsToAnalysis pta, ObjectAllocationGraph oag) {
         this.pta = pta;
@@ -45,7 +52,8 @@ public class PotentialContextElement {
     }
 
     public Set<Method> PCEMethodsOf(Obj obj) {
-        return obj.getAttributeSet(PCE);
+        Set<Method> methods = pceMethods.get(obj);
+        return methods != null ? methods : Collections.emptySet();
     }
 
     /**
@@ -55,83 +63,99 @@ public class PotentialContextElement {
      */
     public Set<Method> PCEMethodsOf(Type type) {
         if (!typePCEMethods.containsKey(type)) {
-            Set<Method> methods = new HashSet<>();
-            pta.objectsOfType(type)
-                    .forEach(obj -> methods.addAll(PCEMethodsOf(obj)));
-            typePCEMethods.put(type, methods);
+            BitSet bits = new BitSet();
+            pta.objectsOfType(type).forEach(obj -> {
+                DenseBitmapSet<Method> methods = pceMethods.get(obj);
+                if (methods != null) {
+                    bits.or(methods.getBits());
+                }
+            });
+            // equal sets are shared, so that the types with the same
+            // PCE methods can share cached flow analysis results
+            typePCEMethods.put(type, setFactory.get(
+                    new DenseBitmapSet<>(bits, methodOf)));
         }
         return typePCEMethods.get(type);
     }
 
     public Set<Obj> PCEObjectsOf(Method method) {
-        return method.getAttributeSet(PCE);
+        Set<Obj> objs = pceObjects.get(method);
+        return objs != null ? objs : Collections.emptySet();
     }
 
     /**
      * Compute PCE methods for each objects.
      */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private void init(ObjectAllocationGraph oag) {
-        SCCMergedGraph<Obj> mg = new SCCMergedGraph<>(oag);
-        TopologicalSorter<MergedNode<Obj>> topoSorter = new TopologicalSorter();
-        SetFactory<Method> setFactory = new SetFactory<>();
-        invokedMethods = new HashMap<>();
-
-        topoSorter.sort(mg, true).forEach(node -> {
-            Set<Method> methods = setFactory.get(getPCEMethods(node, mg));
-            node.getContent().forEach(obj -> obj.setAttribute(PCE, methods));
-        });
-        invokedMethods = null;
+        staticCalleeClosure = oag.getStaticCalleeClosure();
+        methodOf = staticCalleeClosure::methodOf;
+        // The PCE methods of the SCCs of the OAG are folded from the
+        // successors to their predecessors, level by level in parallel.
+        IntStronglyConnectedComponents scc = oag.getSCC();
+        DenseBitmapSet<Method>[] results = new DenseBitmapSet[scc.nrComponents()];
+        oag.getComponentLevels().forEach(ComponentLevels.poolOf(Global.getThread()),
+                c -> results[c] = setFactory.get(new DenseBitmapSet<>(
+                        getPCEMethods(oag, c, results), methodOf)));
+        for (int c = 0; c < results.length; ++c) {
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                Obj obj = oag.objectOf(scc.memberAt(i));
+                if (obj != null) {
+                    pceMethods.set(obj, results[c]);
+                }
+            }
+        }
         if (Global.isDebug()) {
-            computePCEObjects();
+            computePCEObjects(oag);
         }
         // Compute PCEMethodsOf(Type) in advance, otherwise it may cause concurrency error
         pta.allObjects().stream()
                 .map(Obj::getType)
                 .distinct()
                 .forEach(this::PCEMethodsOf);
+        if (Global.isDebug()) {
+            System.out.println("PCE method sets: " + setFactory);
+        }
     }
 
-    private Set<Method> getPCEMethods(MergedNode<Obj> node,
-                                      SCCMergedGraph<Obj> mg) {
-        Set<Method> methods = new HashSet<>();
-        mg.succsOf(node).forEach(n -> {
-            Obj o = n.getContent().iterator().next();
-            methods.addAll(PCEMethodsOf(o));
-        });
-        node.getContent()
-                .forEach(o -> methods.addAll(invokedMethodsOf(o)));
-        return methods;
-    }
-
-    private Set<Method> invokedMethodsOf(Obj obj) {
-        if (!invokedMethods.containsKey(obj)) {
-            Set<Method> methods = new HashSet<>();
-            Queue<Method> queue = new LinkedList<>(pta.methodsInvokedOn(obj));
-            while (!queue.isEmpty()) {
-                Method method = queue.poll();
-                methods.add(method);
-                pta.calleesOf(method).stream()
-                        .filter(m -> m.isStatic() && !methods.contains(m))
-                        .forEach(queue::offer);
+    /**
+     * @return the PCE methods of component c of the OAG, where the PCE
+     * methods of its successors have been computed.
+     */
+    private BitSet getPCEMethods(ObjectAllocationGraph oag, int c,
+                                 DenseBitmapSet<Method>[] results) {
+        IntStronglyConnectedComponents scc = oag.getSCC();
+        BitSet methods = new BitSet();
+        for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+            int v = scc.memberAt(i);
+            for (int e = oag.succStart(v); e < oag.succEnd(v); ++e) {
+                int succ = scc.componentOf(oag.succIDAt(e));
+                if (succ != c) {
+                    methods.or(results[succ].getBits());
+                }
+            }
+            Obj obj = oag.objectOf(v);
+            if (obj != null) {
+                staticCalleeClosure.addInvokedMethods(obj, methods);
             }
-            invokedMethods.put(obj, methods);
         }
-        return invokedMethods.get(obj);
+        return methods;
     }
 
-    private void computePCEObjects() {
-        Map<Method, Set<Obj>> pceObjs = new HashMap<>();
-        SetFactory<Obj> setFactory = new SetFactory<>();
+    /**
+     * Compute PCE objects for each method, as bitmaps over the IDs of
+     * objects, which are shared with the equal object sets of oag.
+     */
+    private void computePCEObjects(ObjectAllocationGraph oag) {
+        Map<Method, CompressedBitSet> pceObjs = new HashMap<>();
         pta.allObjects().forEach(obj -> {
-            PCEMethodsOf(obj).forEach(method -> {
-                if (!pceObjs.containsKey(method)) {
-                    pceObjs.put(method, new HashSet<>());
-                }
-                pceObjs.get(method).add(obj);
-            });
+            PCEMethodsOf(obj).forEach(method ->
+                    pceObjs.computeIfAbsent(method, m -> new CompressedBitSet())
+                            .add(obj.getID()));
         });
         pceObjs.forEach(((method, objs) -> {
-            method.setAttribute(PCE, setFactory.get(objs));
+            objs.trim();
+            pceObjects.set(method, oag.objectSetOf(objs));
         }));
     }
 }
@@ -0,0 +1,146 @@
+package ptatoolkit.zipper.analysis;
+
+import ptatoolkit.Global;
+import ptatoolkit.pta.basic.Method;
+import ptatoolkit.pta.basic.Obj;
+import ptatoolkit.util.IntStack;
+import ptatoolkit.util.graph.ComponentLevels;
+import ptatoolkit.util.graph.IntStronglyConnectedComponents;
+import ptatoolkit.zipper.pta.PointsToAnalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The static callee closure of each method, i.e., the method itself and
+ * the static methods which are transitively called by it. The methods
+ * invoked on an object are the closures of the methods whose receiver
+ * is the object, which are shared by {@link ObjectAllocationGraph} and
+ * {@link PotentialContextElement}.
+ *
+ * The closures are computed once over the static call graph, whose SCCs
+ * are condensed so that the methods of an SCC share their closure. The
+ * SCCs of the same level (see {@link ComponentLevels}) do not reach each
+ * other, thus their closures are computed in parallel.
+ */
+class StaticCalleeClosure {
+
+    private final PointsToAnalysis pta;
+    // the methods in the call graph, and the index of each method by ID
+    private final List<Method> methods = new ArrayList<>();
+    private int[] indexes = new int[64];
+    private Method[] methodOfID = new Method[64];
+    private IntStronglyConnectedComponents scc;
+    // IDs of the methods in the closure of each SCC, in ascending order
+    private int[][] closures;
+
+    StaticCalleeClosure(PointsToAnalysis pta) {
+        this.pta = pta;
+        Arrays.fill(indexes, -1);
+        build();
+    }
+
+    /**
+     * @return the method of given ID, which must be in some closure.
+     */
+    Method methodOf(int id) {
+        return methodOfID[id];
+    }
+
+    /**
+     * @return the IDs of the methods in the closure of method,
+     * in ascending order, which must not be modified.
+     */
+    int[] closureOf(Method method) {
+        return closures[scc.componentOf(indexes[method.getID()])];
+    }
+
+    /**
+     * Add the IDs of the methods invoked on obj to methods.
+     * For instance methods, they are the methods whose receiver is the object.
+     * For static methods, they are the methods reachable from instance methods.
+     */
+    void addInvokedMethods(Obj obj, BitSet methods) {
+        for (Method method : pta.methodsInvokedOn(obj)) {
+            for (int id : closureOf(method)) {
+                methods.set(id);
+            }
+        }
+    }
+
+    private void build() {
+        // the static call graph from the methods invoked on objects
+        pta.allObjects().forEach(obj ->
+                pta.methodsInvokedOn(obj).forEach(this::indexOf));
+        IntStack offsetList = new IntStack(methods.size() + 1);
+        IntStack succList = new IntStack(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            offsetList.push(succList.size());
+            for (Method callee : pta.calleesOf(methods.get(i))) {
+                if (callee.isStatic()) {
+                    succList.push(indexOf(callee));
+                }
+            }
+        }
+        offsetList.push(succList.size());
+        int[] offsets = offsetList.toArray();
+        int[] succs = succList.toArray();
+        scc = new IntStronglyConnectedComponents(methods.size(), offsets, succs);
+        closures = new int[scc.nrComponents()][];
+        new ComponentLevels(scc, offsets, succs).forEach(
+                ComponentLevels.poolOf(Global.getThread()),
+                c -> computeClosure(c, offsets, succs));
+    }
+
+    /**
+     * Compute the closure of SCC c, where the closures of
+     * its successors have been computed.
+     */
+    private void computeClosure(int c, int[] offsets, int[] succs) {
+        IntStack ids = new IntStack(scc.memberEnd(c) - scc.memberStart(c));
+        for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+            int v = scc.memberAt(i);
+            ids.push(methods.get(v).getID());
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                int succ = scc.componentOf(succs[e]);
+                if (succ != c) {
+                    for (int id : closures[succ]) {
+                        ids.push(id);
+                    }
+                }
+            }
+        }
+        int[] closure = ids.toArray();
+        Arrays.sort(closure);
+        int size = 0;
+        for (int i = 0; i < closure.length; ++i) {
+            if (i == 0 || closure[i] != closure[i - 1]) {
+                closure[size++] = closure[i];
+            }
+        }
+        closures[c] = size == closure.length ?
+                closure : Arrays.copyOf(closure, size);
+    }
+
+    /**
+     * @return the index of method in the call graph, where
+     * the method is added if absent.
+     */
+    private int indexOf(Method method) {
+        int id = method.getID();
+        if (id >= indexes.length) {
+            int length = indexes.length;
+            indexes = Arrays.copyOf(indexes, Math.max(id + 1, length * 2));
+            Arrays.fill(indexes, length, indexes.length, -1);
+            methodOfID = Arrays.copyOf(methodOfID, indexes.length);
+        }
+        if (indexes[id] == -1) {
+            indexes[id] = methods.size();
+            methods.add(method);
+            methodOfID[id] = method;
+        }
+        return indexes[id];
+    }
+}
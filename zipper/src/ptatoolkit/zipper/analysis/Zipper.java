@@ -6,6 +6,7 @@ import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Type;
 import ptatoolkit.util.ANSIColor;
 import ptatoolkit.util.Timer;
+import ptatoolkit.zipper.flowgraph.AssignClosureCache;
 import ptatoolkit.zipper.flowgraph.FlowAnalysis;
 import ptatoolkit.zipper.flowgraph.InstanceFieldNode;
 import ptatoolkit.zipper.flowgraph.Node;
@@ -13,18 +14,20 @@ import ptatoolkit.zipper.flowgraph.ObjectFlowGraph;
 import ptatoolkit.zipper.flowgraph.VarNode;
 import ptatoolkit.zipper.pta.PointsToAnalysis;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -44,18 +47,39 @@ public class Zipper {
     private final PotentialContextElement pce;
     private final ObjectFlowGraph ofg;
     private final InnerClassChecker innerClsChecker;
+    private final AssignClosureCache closures;
     private final Map<Method, Integer> methodPts;
     private final AtomicInteger analyzedClasses = new AtomicInteger(0);
     private final AtomicInteger totalPFGNodes = new AtomicInteger(0);
     private final AtomicInteger totalPFGEdges = new AtomicInteger(0);
     private final Map<Type, Collection<Method>> pcmMap = new ConcurrentHashMap<>(1024);
+    // Types whose flow analyses are split across worker threads
+    private Set<Type> splitTypes = Collections.emptySet();
+    // States and fingerprints of incremental analysis, null otherwise
+    private IncrementalState previousState;
+    private IncrementalState currentState;
+    private Fingerprints fingerprints;
 
     public Zipper(PointsToAnalysis pta) {
+        this(pta, null);
+    }
+
+    /**
+     * @param ofg the object flow graph of pta, which may be shared by
+     *            many instances of Zipper, or null if it is to be built.
+     */
+    public Zipper(PointsToAnalysis pta, ObjectFlowGraph ofg) {
         this.pta = pta;
         this.oag = new ObjectAllocationGraph(pta);
         this.pce = new PotentialContextElement(pta, oag);
         this.innerClsChecker = new InnerClassChecker(pta);
-        this.ofg = buildObjectFlowGraph(pta);
+        this.ofg = ofg != null ? ofg : buildObjectFlowGraph(pta);
+        // Closures skip the per-node debugging output, thus are disabled
+        // in debug mode, and do not apply to a condensed OFG.
+        this.closures = Global.getClosureCacheSize() > 0 && !Global.isDebug()
+                && !this.ofg.isCondensed() ?
+                new AssignClosureCache(pta, this.ofg,
+                        Global.getClosureCacheSize() * 1024L * 1024L) : null;
         this.methodPts = getMethodPointsToSize(pta);
     }
 
@@ -74,6 +98,9 @@ public class Zipper {
         System.out.println("Building OFG (Object Flow Graph) ... ");
         ofgTimer.start();
         ObjectFlowGraph ofg = new ObjectFlowGraph(pta);
+        if (Global.isCondenseOFG()) {
+            ofg.condense();
+        }
         ofgTimer.stop();
         // System.out.println(ofgTimer);
         outputObjectFlowGraphSize(ofg);
@@ -81,16 +108,17 @@ public class Zipper {
     }
 
     public static void outputObjectFlowGraphSize(ObjectFlowGraph ofg) {
-        int nrNodes = ofg.allNodes().size();
-        int nrEdges = 0;
-        for (Node node : ofg.allNodes()) {
-            nrEdges += ofg.outEdgesOf(node).size();
-        }
+        int nrNodes = ofg.nrNodes();
+        int nrEdges = ofg.nrEdges();
 
         System.out.println("#nodes in OFG: " +
                 ANSIColor.BOLD + ANSIColor.GREEN + nrNodes + ANSIColor.RESET);
         System.out.println("#edges in OFG: " +
                 ANSIColor.BOLD + ANSIColor.GREEN + nrEdges + ANSIColor.RESET);
+        if (ofg.isCondensed()) {
+            System.out.println("#nodes in condensed OFG: " +
+                    ANSIColor.BOLD + ANSIColor.GREEN + ofg.nrReps() + ANSIColor.RESET);
+        }
         System.out.println();
     }
 
@@ -106,6 +134,9 @@ public class Zipper {
                 .distinct()
                 .sorted(Comparator.comparing(Type::toString))
                 .collect(Collectors.toList());
+        if (previousState != null) {
+            types = reuseUnchangedTypes(types);
+        }
         if (Global.getThread() == Global.UNDEFINE) {
             computePCM(types);
         } else {
@@ -128,24 +159,164 @@ public class Zipper {
         return pcm;
     }
 
+    /**
+     * Analyze the program incrementally, i.e., reuse the results of the
+     * types whose inputs are unchanged since the previous run, and only
+     * analyze the other types. The results are saved in stateDir.
+     * @return set of precision-critical methods in the program
+     */
+    public Set<Method> analyzeIncrementally(File stateDir) {
+        previousState = IncrementalState.load(stateDir, getStateSignature());
+        // the inputs are only rehashed if their stamp has changed
+        String stamp = pta.inputStamp();
+        String digest = stamp != null && stamp.equals(previousState.getInputStamp()) ?
+                previousState.getInputDigest() : pta.inputDigest();
+        currentState = new IncrementalState(getStateSignature(), stamp, digest);
+        fingerprints = new Fingerprints(pta, oag, pce, ofg);
+        try {
+            Set<Method> pcm = analyze();
+            currentState.save(stateDir);
+            return pcm;
+        } finally {
+            previousState = null;
+            currentState = null;
+            fingerprints = null;
+        }
+    }
+
+    /**
+     * @return the signature of the options which affect the per-type
+     * results, i.e., the enabled flows and the form of the OFG.
+     */
+    private static String getStateSignature() {
+        return "wrapped=" + Global.isEnableWrappedFlow()
+                + ",unwrapped=" + Global.isEnableUnwrappedFlow()
+                + ",condense=" + Global.isCondenseOFG();
+    }
+
+    /**
+     * Reuse the results of the types which are unchanged since the
+     * previous run.
+     * @return the changed types, which remain to be analyzed.
+     */
+    private List<Type> reuseUnchangedTypes(List<Type> types) {
+        String digest = currentState.getInputDigest();
+        boolean sameInputs = digest != null &&
+                digest.equals(previousState.getInputDigest());
+        List<Type> changedTypes = new ArrayList<>();
+        for (Type type : types) {
+            IncrementalState.Record record = previousState.get(type);
+            if (record == null || !(sameInputs || isUnchanged(type, record))
+                    || !reuse(type, record)) {
+                changedTypes.add(type);
+            }
+        }
+        System.out.println("#types reused from previous run: " +
+                ANSIColor.BOLD + ANSIColor.GREEN +
+                (types.size() - changedTypes.size()) + ANSIColor.RESET);
+        return changedTypes;
+    }
+
+    private boolean isUnchanged(Type type, IncrementalState.Record record) {
+        Set<Method> ms = getMethodsOf(type);
+        return fingerprints.ofType(type, getINMethods(ms),
+                getOUTMethods(type, ms)) == record.typeFingerprint
+                && fingerprints.ofNodes(record.nodes) == record.nodesFingerprint;
+    }
+
+    /**
+     * @return whether the recorded results of type are reused.
+     */
+    private boolean reuse(Type type, IncrementalState.Record record) {
+        Set<String> names = new HashSet<>(record.pcm);
+        Set<Method> precisionCriticalMethods = pce.PCEMethodsOf(type).stream()
+                .filter(m -> names.contains(m.toString()))
+                .collect(Collectors.toSet());
+        if (precisionCriticalMethods.size() != names.size()) {
+            return false;
+        }
+        mergeAnalysisResults(type, record.nrPFGNodes, record.nrPFGEdges,
+                precisionCriticalMethods);
+        currentState.put(type, record);
+        return true;
+    }
+
+    private IncrementalState.Record newRecord(
+            Type type, Set<Method> inms, Set<Method> outms,
+            FlowAnalysis fa, Set<Method> precisionCriticalMethods) {
+        List<String> nodes = new ArrayList<>();
+        long nodesFingerprint = 0;
+        for (Node node : fa.getVisitedNodes()) {
+            nodes.add(fingerprints.keyOf(node));
+            nodesFingerprint += fingerprints.ofNode(node);
+        }
+        List<String> pcm = precisionCriticalMethods.stream()
+                .map(Method::toString)
+                .sorted()
+                .collect(Collectors.toList());
+        return new IncrementalState.Record(fa.numberOfPFGNodes(),
+                fa.numberOfPFGEdges(), fingerprints.ofType(type, inms, outms),
+                nodesFingerprint, nodes, pcm);
+    }
+
     private void computePCM(List<Type> types) {
-        FlowAnalysis fa = new FlowAnalysis(pta, oag, pce, ofg);
+        FlowAnalysis fa = newFlowAnalysis();
         types.forEach(type -> analyze(type, fa));
     }
 
+    /**
+     * @return a new flow analysis over the graphs of this Zipper,
+     * which analyzes one type at a time.
+     */
+    FlowAnalysis newFlowAnalysis() {
+        return new FlowAnalysis(pta, oag, pce, ofg, closures);
+    }
+
     private void computePCMConcurrent(List<Type> types, int nThread) {
-        ExecutorService executorService = Executors.newFixedThreadPool(nThread);
-        types.forEach(type ->
-                executorService.execute(() -> {
-                    FlowAnalysis fa = new FlowAnalysis(pta, oag, pce, ofg);
-                    analyze(type, fa);
-                }));
-        executorService.shutdown();
-        try {
-            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        // Analyze the expensive types first, so that they do not finish
+        // last while the other workers are idle. The sort is stable, so
+        // the types of the same cost remain in alphabetical order.
+        Map<Type, Long> costs = new HashMap<>();
+        types.forEach(type -> costs.put(type, estimateCost(type)));
+        List<Type> sortedTypes = new ArrayList<>(types);
+        sortedTypes.sort(Comparator.comparing(costs::get).reversed());
+        // A type whose cost exceeds the fair share of a worker is
+        // analyzed by all workers together.
+        long splitCost = Global.getSplitCost() != Global.UNDEFINE ?
+                Global.getSplitCost() :
+                costs.values().stream().mapToLong(Long::longValue).sum() / nThread;
+        splitTypes = types.stream()
+                .filter(type -> costs.get(type) >= splitCost)
+                .collect(Collectors.toSet());
+        // Each worker owns a flow analysis and pulls the next type
+        // from the shared cursor until all types are analyzed.
+        AtomicInteger cursor = new AtomicInteger(0);
+        ForkJoinPool pool = new ForkJoinPool(nThread);
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int i = 0; i < nThread; ++i) {
+            workers.add(pool.submit(() -> {
+                FlowAnalysis fa = newFlowAnalysis();
+                int next;
+                while ((next = cursor.getAndIncrement()) < sortedTypes.size()) {
+                    analyze(sortedTypes.get(next), fa);
+                }
+            }));
         }
+        workers.forEach(ForkJoinTask::join);
+        pool.shutdown();
+    }
+
+    /**
+     * Estimate the cost of analyzing given type, which grows with
+     * the number of its objects, the methods invoked on it (whose
+     * parameters start the flow analysis), and its PCE methods
+     * (which bound the part of OFG to be explored).
+     */
+    long estimateCost(Type type) {
+        long nrObjs = pta.objectsOfType(type).size();
+        long nrMethods = pta.methodsInvokedOn(type).size();
+        long nrPCEMethods = pce.PCEMethodsOf(type).size();
+        return nrObjs + nrMethods * (nrPCEMethods + 1);
     }
 
     /**
@@ -160,20 +331,62 @@ public class Zipper {
         }
         // System.out.println(color(YELLOW, "Zipper: analyzing ") + type);
 
-        // Obtain all methods of type (including inherited methods)
-        Set<Method> ms = pta.objectsOfType(type).stream()
+        Set<Method> ms = getMethodsOf(type);
+        Set<Method> inms = getINMethods(ms);
+        Set<Method> outms = getOUTMethods(type, ms);
+
+        if (Global.isDebug()) {
+            System.out.println(color(YELLOW, "In methods:"));
+            inms.stream()
+                    .sorted(Comparator.comparing(Method::toString))
+                    .forEach(m -> System.out.println("  " + m));
+            System.out.println(color(YELLOW, "Out methods:"));
+            outms.stream()
+                    .sorted(Comparator.comparing(Method::toString))
+                    .forEach(m -> System.out.println("  " + m));
+        }
+
+        fa.initialize(type, inms, outms);
+        if (splitTypes.contains(type) && !Global.isDebug()) {
+            fa.analyzeInParallel(inms);
+        } else {
+            inms.forEach(fa::analyze);
+        }
+        Set<Node> flowNodes = fa.getFlowNodes();
+        Set<Method> precisionCriticalMethods = getPrecisionCriticalMethods(type, flowNodes);
+        if (Global.isDebug()) {
+            if (!precisionCriticalMethods.isEmpty()) {
+                System.out.println(color(BLUE, "Flow found: ") + type);
+            }
+        }
+        mergeAnalysisResults(type, fa.numberOfPFGNodes(),
+                fa.numberOfPFGEdges(), precisionCriticalMethods);
+        if (currentState != null) {
+            currentState.put(type, newRecord(type, inms, outms,
+                    fa, precisionCriticalMethods));
+        }
+        fa.clear();
+    }
+
+    /**
+     * @return all methods of type (including inherited methods)
+     */
+    Set<Method> getMethodsOf(Type type) {
+        return pta.objectsOfType(type).stream()
                 .map(pta::methodsInvokedOn)
                 .flatMap(Collection::stream)
                 .collect(Collectors.toSet());
+    }
 
-        // Obtain IN methods
-        Set<Method> inms = ms.stream()
+    Set<Method> getINMethods(Set<Method> ms) {
+        return ms.stream()
                 .filter(not(Method::isPrivate))
                 .filter(m -> m.getParameters().stream()
                         .anyMatch(p -> !pta.pointsToSetOf(p).isEmpty()))
                 .collect(Collectors.toSet());
+    }
 
-        // Obtain OUT methods
+    Set<Method> getOUTMethods(Type type, Set<Method> ms) {
         Set<Method> outms = new HashSet<>();
         ms.stream()
                 .filter(not(Method::isPrivate))
@@ -192,30 +405,7 @@ public class Zipper {
                 .filter(m -> pta.declaringTypeOf(m).equals(type)
                         && m.toString().contains("access$"))
                 .forEach(outms::add);
-
-        if (Global.isDebug()) {
-            System.out.println(color(YELLOW, "In methods:"));
-            inms.stream()
-                    .sorted(Comparator.comparing(Method::toString))
-                    .forEach(m -> System.out.println("  " + m));
-            System.out.println(color(YELLOW, "Out methods:"));
-            outms.stream()
-                    .sorted(Comparator.comparing(Method::toString))
-                    .forEach(m -> System.out.println("  " + m));
-        }
-
-        fa.initialize(type, inms, outms);
-        inms.forEach(fa::analyze);
-        Set<Node> flowNodes = fa.getFlowNodes();
-        Set<Method> precisionCriticalMethods = getPrecisionCriticalMethods(type, flowNodes);
-        if (Global.isDebug()) {
-            if (!precisionCriticalMethods.isEmpty()) {
-                System.out.println(color(BLUE, "Flow found: ") + type);
-            }
-        }
-        mergeAnalysisResults(type, fa.numberOfPFGNodes(),
-                fa.numberOfPFGEdges(), precisionCriticalMethods);
-        fa.clear();
+        return outms;
     }
 
     private void mergeAnalysisResults(Type type, int nrPFGNodes, int nrPFGEdges,
@@ -239,10 +429,38 @@ public class Zipper {
         return pcm;
     }
 
+    /**
+     * Select the precision-critical methods of Zipper-e with each of
+     * given thresholds from the results of the last analysis, so that
+     * the thresholds are explored without analyzing the program again.
+     * @return the precision-critical methods of each threshold, in the
+     * order of given thresholds.
+     */
+    public Map<Float, Set<Method>> sweepExpressThresholds(float[] thresholds) {
+        Map<Type, Long> costs = new HashMap<>();
+        pcmMap.forEach((type, pcms) ->
+                costs.put(type, getAccumulativePointsToSetSize(pcms)));
+        Map<Float, Set<Method>> results = new LinkedHashMap<>();
+        for (float threshold : thresholds) {
+            int pcmThreshold = computePCMThreshold(threshold);
+            Set<Method> pcm = new HashSet<>();
+            pcmMap.forEach((type, pcms) -> {
+                if (costs.get(type) <= pcmThreshold) {
+                    pcm.addAll(pcms);
+                }
+            });
+            results.put(threshold, pcm);
+        }
+        return results;
+    }
+
     private int computePCMThreshold() {
+        return computePCMThreshold(Global.getExpressThreshold());
+    }
+
+    private int computePCMThreshold(float threshold) {
         // Use points-to size of whole program as denominator
-        return (int) (Global.getExpressThreshold() *
-                pta.totalPointsToSetSize());
+        return (int) (threshold * pta.totalPointsToSetSize());
     }
 
     private Set<Method> getPrecisionCriticalMethods(Type type, Set<Node> nodes) {
@@ -281,7 +499,12 @@ public class Zipper {
         return results;
     }
 
-    private long getAccumulativePointsToSetSize(Collection<Method> methods) {
+    /**
+     * @return the sum of points-to set sizes of the variables declared
+     * in given methods, which predicts the cost of analyzing them
+     * context-sensitively.
+     */
+    public long getAccumulativePointsToSetSize(Collection<Method> methods) {
         return methods.stream()
                 .mapToInt(methodPts::get)
                 .sum();
@@ -1,30 +0,0 @@
-package ptatoolkit.zipper.doop;
-
-public final class Attribute {
-
-    public static final String PTS = "Points-to set";
-
-    public static final String FPTS = "Field points-to set";
-
-    public static final String CALL_ON = "Call sites on";
-
-    public static final String MTD_ON = "Methods on";
-
-    public static final String ALLOCATED = "Allocated";
-
-    public static final String DECLARING = "Declaring";
-
-    public static final String CALL_SITE = "Call sites of";
-
-    public static final String CALLEE = "Callee";
-
-    public static final String OBJECT_ASSIGNED = "Object assigned";
-
-    public static final String DECLARING_TYPE = "Declaring type";
-
-    public static final String RETURN_TO = "Return to";
-
-    public static final String POINTS_TO_SET_SIZE = "Points-to set size";
-
-    public static final String VARS_IN = "Variables in";
-}
@@ -5,6 +5,7 @@ import ptatoolkit.Global;
 import ptatoolkit.Options;
 import ptatoolkit.doop.DataBase;
 import ptatoolkit.doop.Query;
+import ptatoolkit.doop.SymbolTable;
 import ptatoolkit.doop.factory.FieldFactory;
 import ptatoolkit.doop.factory.MethodFactory;
 import ptatoolkit.doop.factory.ObjFactory;
@@ -16,14 +17,21 @@ import ptatoolkit.pta.basic.Method;
 import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Type;
 import ptatoolkit.pta.basic.Variable;
-import ptatoolkit.util.MutableInteger;
+import ptatoolkit.pta.util.BitmapSet;
+import ptatoolkit.pta.util.IntColumn;
+import ptatoolkit.pta.util.SetColumn;
+import ptatoolkit.pta.util.ValueColumn;
+import ptatoolkit.util.CompressedBitSet;
+import ptatoolkit.util.ExternalLongSorter;
+import ptatoolkit.util.IntIntMap;
 import ptatoolkit.util.Pair;
 import ptatoolkit.util.Timer;
 import ptatoolkit.util.Triple;
 import ptatoolkit.zipper.pta.PointsToAnalysis;
 
 import java.io.File;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -34,21 +42,14 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import static ptatoolkit.zipper.doop.Attribute.ALLOCATED;
-import static ptatoolkit.zipper.doop.Attribute.CALLEE;
-import static ptatoolkit.zipper.doop.Attribute.DECLARING;
-import static ptatoolkit.zipper.doop.Attribute.DECLARING_TYPE;
-import static ptatoolkit.zipper.doop.Attribute.MTD_ON;
-import static ptatoolkit.zipper.doop.Attribute.OBJECT_ASSIGNED;
-import static ptatoolkit.zipper.doop.Attribute.POINTS_TO_SET_SIZE;
-import static ptatoolkit.zipper.doop.Attribute.PTS;
-import static ptatoolkit.zipper.doop.Attribute.RETURN_TO;
-import static ptatoolkit.zipper.doop.Attribute.VARS_IN;
 
 public class DoopPointsToAnalysis implements PointsToAnalysis {
 
     private final DataBase db;
+    private final SymbolTable symbols;
+    private final String loadedInputStamp;
     private Set<Obj> allObjs;
+    private Obj[] objsByID = new Obj[1024];
     private int totalPTSSize;
     private Set<Method> reachableMethods;
     // The following factories may be used by iterators
@@ -56,13 +57,42 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
     private ObjFactory objFactory;
     private FieldFactory fieldFactory;
 
-    private Set<String> specialObjects;
+    private BitSet specialObjects; // symbols of special objects
     private Map<Type, Type> directSuperType;
     private Map<Type, Set<Obj>> typeObjects;
     private Map<Type, Set<Method>> typeMethods;
     private List<Pair<Variable, Variable>> thisAssign;
 
+    // Attributes of variables, objects and methods, indexed by their IDs
+    // points-to sets are bitmaps over the IDs of objects
+    private final ValueColumn<BitmapSet<Obj>> pts = new ValueColumn<>();
+    private final BitmapSet<Obj> emptyPTS =
+            new BitmapSet<>(new CompressedBitSet(), this::objectOf);
+    private final IntColumn ptsSize = new IntColumn();
+    private final SetColumn<Variable> returnTo = new SetColumn<>();
+    private final ValueColumn<Method> declaring = new ValueColumn<>();
+    private final ValueColumn<Method> allocatedIn = new ValueColumn<>();
+    private final ValueColumn<Variable> objectAssigned = new ValueColumn<>();
+    private final SetColumn<Method> mtdOn = new SetColumn<>();
+    private final SetColumn<Obj> allocated = new SetColumn<>();
+    private final SetColumn<Method> callees = new SetColumn<>();
+    private final SetColumn<Variable> varsIn = new SetColumn<>();
+    private final ValueColumn<Type> declaringType = new ValueColumn<>();
+
     private static final String ARR_FIELD = "@ARRAY";
+    private static final String CLASS_OBJECT_PREFIX = "<class ";
+
+    // Queries issued by the factories, init() and the iterators,
+    // which are parsed concurrently ahead of their use.
+    public static final List<Query> REQUIRED_QUERIES = Arrays.asList(
+            Query.OBJ_TYPE, Query.THIS_VAR, Query.PARAMS, Query.RET_VARS,
+            Query.METHOD_MODIFIER, Query.INST_METHODS, Query.CALL_RETURN_TO,
+            Query.VPT, Query.SPECIAL_OBJECTS, Query.OBJECT_IN,
+            Query.CALLSITEIN, Query.INST_CALL_RECV, Query.CALL_EDGE,
+            Query.VAR_IN, Query.OBJECT_ASSIGN, Query.DIRECT_SUPER_TYPE,
+            Query.LOCAL_ASSIGN, Query.INTERPROCEDURAL_ASSIGN,
+            Query.INSTANCE_LOAD, Query.ARRAY_LOAD,
+            Query.INSTANCE_STORE, Query.ARRAY_STORE);
 
     public DoopPointsToAnalysis(Options options) {
         Timer ptaTimer = new Timer("Points-to Analysis Timer");
@@ -72,10 +102,37 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
                 new File(options.getDbPath()) : null;
         File cacheDir = new File(options.getCachePath());
         this.db = new DataBase(dbDir, cacheDir, options.getApp());
+        this.symbols = db.symbols();
+        // Without a database, the inputs are not created by reading
+        // them, so they can be stamped before they are read.
+        this.loadedInputStamp = dbDir == null ?
+                db.stamp(REQUIRED_QUERIES) : null;
+        if (Global.getVPTBudget() == Global.UNDEFINE) {
+            db.prefetch(REQUIRED_QUERIES);
+        } else { // VPT is streamed instead of being parsed at once
+            db.prefetch(REQUIRED_QUERIES.stream()
+                    .filter(query -> query != Query.VPT)
+                    .collect(Collectors.toList()));
+        }
         init();
         ptaTimer.stop();
     }
 
+    @Override
+    public String inputDigest() {
+        return db.digest(REQUIRED_QUERIES);
+    }
+
+    @Override
+    public String inputStamp() {
+        return db.stamp(REQUIRED_QUERIES);
+    }
+
+    @Override
+    public String loadedInputStamp() {
+        return loadedInputStamp;
+    }
+
     @Override
     public Set<Obj> allObjects() {
         return allObjs;
@@ -88,24 +145,27 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
 
     @Override
     public Set<Obj> pointsToSetOf(Variable var) {
-        if (var.hasAttribute(PTS)) {
-            return (Set<Obj>) var.getAttribute(PTS);
+        BitmapSet<Obj> objs = pts.get(var);
+        if (objs != null) {
+            return objs;
         } else { // in this case, the variable is a null pointer
             if (Global.isDebug()) {
                 System.out.println(var + " is a null pointer.");
             }
-            return Collections.emptySet();
+            return emptyPTS;
         }
     }
 
+    @Override
+    public boolean mayAlias(Variable var1, Variable var2) {
+        BitmapSet<Obj> pts1 = pts.get(var1);
+        BitmapSet<Obj> pts2 = pts.get(var2);
+        return pts1 != null && pts2 != null && pts1.intersects(pts2);
+    }
+
     @Override
     public int pointsToSetSizeOf(Variable var) {
-        if (var.hasAttribute(POINTS_TO_SET_SIZE)) {
-            MutableInteger size = (MutableInteger) var.getAttribute(POINTS_TO_SET_SIZE);
-            return size.intValue();
-        } else {
-            return 0;
-        }
+        return ptsSize.get(var);
     }
 
     @Override
@@ -115,35 +175,35 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
 
     @Override
     public Set<Variable> variablesDeclaredIn(Method method) {
-        return method.getAttributeSet(VARS_IN);
+        return varsIn.get(method);
     }
 
     @Override
     public Set<Obj> objectsAllocatedIn(Method method) {
-        return method.getAttributeSet(ALLOCATED);
+        return allocated.get(method);
     }
 
     @Override
     public Set<Method> calleesOf(Method method) {
-        return method.getAttributeSet(CALLEE);
+        return callees.get(method);
     }
 
     @Override
     public Set<Method> methodsInvokedOn(Obj obj) {
-        return obj.getAttributeSet(MTD_ON);
+        return mtdOn.get(obj);
     }
 
     @Override
     public Set<Variable> returnToVariablesOf(Variable recv) {
-        return recv.getAttributeSet(RETURN_TO);
+        return returnTo.get(recv);
     }
 
     @Override
     public Iterator<Pair<Variable, Variable>> localAssignIterator() {
         return new Iterator<Pair<Variable, Variable>>() {
 
-            private Iterator<List<String>> assignIter =
-                    db.query(Query.LOCAL_ASSIGN);
+            private Iterator<int[]> assignIter =
+                    db.querySymbols(Query.LOCAL_ASSIGN);
 
             @Override
             public boolean hasNext() {
@@ -153,9 +213,9 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
             @Override
             public Pair<Variable, Variable> next() {
                 if (assignIter.hasNext()) {
-                    List<String> assign = assignIter.next();
-                    Variable to = varFactory.get(assign.get(0));
-                    Variable from = varFactory.get(assign.get(1));
+                    int[] assign = assignIter.next();
+                    Variable to = varFactory.get(assign[0]);
+                    Variable from = varFactory.get(assign[1]);
                     return new Pair<>(to, from);
                 } else {
                     throw new NoSuchElementException();
@@ -168,8 +228,8 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
     public Iterator<Pair<Variable, Variable>> interProceduralAssignIterator() {
         return new Iterator<Pair<Variable, Variable>>() {
 
-            private Iterator<List<String>> assignIter =
-                    db.query(Query.INTERPROCEDURAL_ASSIGN);
+            private Iterator<int[]> assignIter =
+                    db.querySymbols(Query.INTERPROCEDURAL_ASSIGN);
 
             @Override
             public boolean hasNext() {
@@ -179,9 +239,9 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
             @Override
             public Pair<Variable, Variable> next() {
                 if (assignIter.hasNext()) {
-                    List<String> assign = assignIter.next();
-                    Variable to = varFactory.get(assign.get(0));
-                    Variable from = varFactory.get(assign.get(1));
+                    int[] assign = assignIter.next();
+                    Variable to = varFactory.get(assign[0]);
+                    Variable from = varFactory.get(assign[1]);
                     return new Pair<>(to, from);
                 } else {
                     throw new NoSuchElementException();
@@ -194,10 +254,10 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
     public Iterator<Triple<Variable, Obj, Field>> instanceLoadIterator() {
         return new Iterator<Triple<Variable, Obj, Field>>() {
 
-            private Iterator<List<String>> loadIter =
-                    db.query(Query.INSTANCE_LOAD);
-            private Iterator<List<String>> arrayLoadIter =
-                    db.query(Query.ARRAY_LOAD);
+            private Iterator<int[]> loadIter =
+                    db.querySymbols(Query.INSTANCE_LOAD);
+            private Iterator<int[]> arrayLoadIter =
+                    db.querySymbols(Query.ARRAY_LOAD);
 
             @Override
             public boolean hasNext() {
@@ -207,15 +267,15 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
             @Override
             public Triple<Variable, Obj, Field> next() {
                 if (loadIter.hasNext()) {
-                    List<String> load = loadIter.next();
-                    Variable to = varFactory.get(load.get(0));
-                    Obj base = objFactory.get(load.get(1));
-                    Field field = fieldFactory.get(load.get(2));
+                    int[] load = loadIter.next();
+                    Variable to = varFactory.get(load[0]);
+                    Obj base = objFactory.get(load[1]);
+                    Field field = fieldFactory.get(load[2]);
                     return new Triple<>(to, base, field);
                 } else if (arrayLoadIter.hasNext()) {
-                    List<String> load = arrayLoadIter.next();
-                    Variable to = varFactory.get(load.get(0));
-                    Obj array = objFactory.get(load.get(1));
+                    int[] load = arrayLoadIter.next();
+                    Variable to = varFactory.get(load[0]);
+                    Obj array = objFactory.get(load[1]);
                     Field field = fieldFactory.get(ARR_FIELD);
                     return new Triple<>(to, array, field);
                 } else {
@@ -229,10 +289,10 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
     public Iterator<Triple<Obj, Field, Variable>> instanceStoreIterator() {
         return new Iterator<Triple<Obj, Field, Variable>>() {
 
-            private Iterator<List<String>> storeIter =
-                    db.query(Query.INSTANCE_STORE);
-            private Iterator<List<String>> arrayStoreIter =
-                    db.query(Query.ARRAY_STORE);
+            private Iterator<int[]> storeIter =
+                    db.querySymbols(Query.INSTANCE_STORE);
+            private Iterator<int[]> arrayStoreIter =
+                    db.querySymbols(Query.ARRAY_STORE);
 
             @Override
             public boolean hasNext() {
@@ -242,16 +302,16 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
             @Override
             public Triple<Obj, Field, Variable> next() {
                 if (storeIter.hasNext()) {
-                    List<String> store = storeIter.next();
-                    Obj base = objFactory.get(store.get(0));
-                    Field field = fieldFactory.get(store.get(1));
-                    Variable from = varFactory.get(store.get(2));
+                    int[] store = storeIter.next();
+                    Obj base = objFactory.get(store[0]);
+                    Field field = fieldFactory.get(store[1]);
+                    Variable from = varFactory.get(store[2]);
                     return new Triple<>(base, field, from);
                 } else if (arrayStoreIter.hasNext()) {
-                    List<String> store = arrayStoreIter.next();
-                    Obj array = objFactory.get(store.get(0));
+                    int[] store = arrayStoreIter.next();
+                    Obj array = objFactory.get(store[0]);
                     Field field = fieldFactory.get(ARR_FIELD);
-                    Variable from = varFactory.get(store.get(1));
+                    Variable from = varFactory.get(store[1]);
                     return new Triple<>(array, field, from);
                 } else {
                     throw new NoSuchElementException();
@@ -267,7 +327,7 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
 
     @Override
     public Type declaringTypeOf(Method method) {
-        return (Type) method.getAttribute(DECLARING_TYPE);
+        return declaringType.get(method);
     }
 
     @Override
@@ -286,41 +346,40 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
     }
 
     private void init() {
-        TypeFactory typeFactory = new TypeFactory();
-        varFactory = new VariableFactory();
+        TypeFactory typeFactory = new TypeFactory(symbols);
+        varFactory = new VariableFactory(symbols);
         objFactory =new ObjFactory(db, typeFactory);
-        fieldFactory = new FieldFactory();
+        fieldFactory = new FieldFactory(symbols);
         MethodFactory mtdFactory = new MethodFactory(db, varFactory);
 
-        // Set of variable names whose points-to sets may be needed
-        Set<String> interestingVarNames = new HashSet<>();
+        // IDs of variables whose points-to sets may be needed
+        BitSet interestingVars = new BitSet();
 
         // 2. obtain all reachable instance methods
-        db.query(Query.INST_METHODS).forEachRemaining(list -> {
-            String mtdSig = list.get(0);
+        db.querySymbols(Query.INST_METHODS).forEachRemaining(tuple -> {
             InstanceMethod instMtd =
-                    (InstanceMethod) mtdFactory.get(mtdSig);
-            interestingVarNames.add(instMtd.getThis().toString());
+                    (InstanceMethod) mtdFactory.get(tuple[0]);
+            interestingVars.set(instMtd.getThis().getID());
             Streams.concat(instMtd.getParameters().stream(),
                     instMtd.getRetVars().stream())
-                    .forEach(var -> interestingVarNames.add(var.toString()));
+                    .forEach(var -> interestingVars.set(var.getID()));
         });
 
-        db.query(Query.CALL_RETURN_TO).forEachRemaining(list -> {
-            Variable recv = varFactory.get(list.get(0));
-            Variable to = varFactory.get(list.get(1));
-            recv.addToAttributeSet(RETURN_TO, to);
-            interestingVarNames.add(recv.toString());
+        db.querySymbols(Query.CALL_RETURN_TO).forEachRemaining(tuple -> {
+            Variable recv = varFactory.get(tuple[0]);
+            Variable to = varFactory.get(tuple[1]);
+            returnTo.add(recv, to);
+            interestingVars.set(recv.getID());
         });
 
         // 3. build points-to sets of interesting variables
         totalPTSSize = 0;
-        buildPointsToSet(varFactory, objFactory, interestingVarNames);
+        buildPointsToSet(varFactory, objFactory, interestingVars);
 
         // compute the objects allocated in each method
-        specialObjects = Streams.stream(db.query(Query.SPECIAL_OBJECTS))
-                .map(list -> list.get(0))
-                .collect(Collectors.toSet());
+        specialObjects = new BitSet();
+        db.querySymbols(Query.SPECIAL_OBJECTS)
+                .forEachRemaining(tuple -> specialObjects.set(tuple[0]));
         computeAllocatedObjects(objFactory, mtdFactory);
 
         // 4. build caller-callee relations
@@ -328,6 +387,7 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
 
         // 6. build relations between objects and instance methods
         buildMethodsInvokedOnObjects(mtdFactory);
+        mtdOn.freeze();
 
         // 7. map variables to their declaring methods
         buildVarDeclaringMethods(varFactory, mtdFactory);
@@ -339,6 +399,11 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
 
         buildDirectSuperType(typeFactory);
 
+        returnTo.freeze();
+        allocated.freeze();
+        callees.freeze();
+        varsIn.freeze();
+
         typeObjects = new HashMap<>();
         typeMethods = new HashMap<>();
         allObjects().forEach(obj -> {
@@ -350,88 +415,137 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
         });
     }
 
+    /**
+     * Build the points-to sets of interesting variables, and count the
+     * sizes of points-to sets of all variables. If a memory budget is
+     * given, VPT is streamed, and the points-to facts of interesting
+     * variables are sorted by variable within the budget (spilling to
+     * disk if needed), so that each points-to set is built in order.
+     */
     private void buildPointsToSet(VariableFactory varFactory, ObjFactory objFactory,
-                                  Set<String> interestingVarNames) {
+                                  BitSet interestingVars) {
         allObjs = new HashSet<>();
-        db.query(Query.VPT).forEachRemaining(list -> {
-            String objName = list.get(0);
-            String varName = list.get(1);
-            Obj obj = objFactory.get(objName);
-            Variable var = varFactory.get(varName);
-            if (interestingVarNames.contains(varName)) {
-                // add points-to set to var as its attribute
-                var.addToAttributeSet(PTS, obj);
+        int budget = Global.getVPTBudget();
+        if (budget == Global.UNDEFINE) {
+            db.querySymbols(Query.VPT).forEachRemaining(tuple -> {
+                Obj obj = objFactory.get(tuple[0]);
+                Variable var = varFactory.get(tuple[1]);
+                if (interestingVars.get(var.getID())) {
+                    addPointsTo(var, obj);
+                }
+                countPointsTo(var, obj);
+            });
+        } else {
+            try (ExternalLongSorter sorter =
+                         new ExternalLongSorter(budget * 1024L * 1024L)) {
+                // (var symbol << 32) | obj ID of each interesting fact
+                db.streamSymbols(Query.VPT).forEachRemaining(tuple -> {
+                    Obj obj = objFactory.get(tuple[0]);
+                    Variable var = varFactory.get(tuple[1]);
+                    if (interestingVars.get(var.getID())) {
+                        sorter.add(((long) tuple[1] << 32) | obj.getID());
+                    }
+                    countPointsTo(var, obj);
+                });
+                if (sorter.nrRuns() > 0) {
+                    System.out.println("Spilled " + sorter.nrRuns() +
+                            " sorted runs of points-to facts");
+                }
+                sorter.forEachSorted(fact -> addPointsTo(
+                        varFactory.get((int) (fact >>> 32)),
+                        objectOf((int) fact)));
+            }
+        }
+        varFactory.getAllElements().forEach(var -> {
+            BitmapSet<Obj> objs = pts.get(var);
+            if (objs != null) {
+                objs.getBits().trim();
             }
-            allObjs.add(obj);
-            increasePointsToSetSizeOf(var);
-            ++totalPTSSize;
         });
     }
 
-    private void increasePointsToSetSizeOf(Variable var) {
-        if (var.hasAttribute(POINTS_TO_SET_SIZE)) {
-            MutableInteger size = (MutableInteger) var.getAttribute(POINTS_TO_SET_SIZE);
-            size.increase();
-        } else {
-            var.setAttribute(POINTS_TO_SET_SIZE, new MutableInteger(1));
+    private void addPointsTo(Variable var, Obj obj) {
+        BitmapSet<Obj> objs = pts.get(var);
+        if (objs == null) {
+            objs = new BitmapSet<>(new CompressedBitSet(), this::objectOf);
+            pts.set(var, objs);
         }
+        objs.getBits().add(obj.getID());
+    }
+
+    private void countPointsTo(Variable var, Obj obj) {
+        if (allObjs.add(obj)) {
+            int id = obj.getID();
+            if (id >= objsByID.length) {
+                objsByID = Arrays.copyOf(objsByID,
+                        Math.max(id + 1, objsByID.length * 2));
+            }
+            objsByID[id] = obj;
+        }
+        ptsSize.increase(var);
+        ++totalPTSSize;
+    }
+
+    private Obj objectOf(int id) {
+        return objsByID[id];
     }
 
     @Override
     public Method containingMethodOf(Obj obj) {
-        return (Method) obj.getAttribute(ALLOCATED);
+        return allocatedIn.get(obj);
     }
 
     @Override
     public Method declaringMethodOf(Variable var) {
-        return (Method) var.getAttribute(DECLARING);
+        return declaring.get(var);
     }
 
     @Override
     public Variable assignedVarOf(Obj obj) {
-        return (Variable) obj.getAttribute(OBJECT_ASSIGNED);
+        return objectAssigned.get(obj);
     }
 
     private void computeAllocatedObjects(ObjFactory objFactory,
                                          MethodFactory mtdFactory) {
-        db.query(Query.OBJECT_IN).forEachRemaining(list -> {
-            String objName = list.get(0);
+        db.querySymbols(Query.OBJECT_IN).forEachRemaining(tuple -> {
+            int objName = tuple[0];
             if (isNormalObject(objName)) {
                 Obj obj = objFactory.get(objName);
-                Method method = mtdFactory.get(list.get(1));
-                method.addToAttributeSet(ALLOCATED, obj);
-                obj.setAttribute(ALLOCATED, method);
+                Method method = mtdFactory.get(tuple[1]);
+                allocated.add(method, obj);
+                allocatedIn.set(obj, method);
             }
         });
     }
 
-    private boolean isNormalObject(String objName) {
-        return !specialObjects.contains(objName) &&
-                !objName.startsWith("<class "); // class constant
+    private boolean isNormalObject(int objName) {
+        return !specialObjects.get(objName) &&
+                !symbols.startsWith(objName, CLASS_OBJECT_PREFIX); // class constant
     }
 
     private void buildCallees(MethodFactory mtdFactory, VariableFactory varFactory) {
         reachableMethods = new HashSet<>();
         thisAssign = new LinkedList<>();
-        Map<String, String> callIn = new HashMap<>();
-        Map<String, String> callBase = new HashMap<>();
-        db.query(Query.CALLSITEIN).forEachRemaining(list -> {
-            String call = list.get(0);
-            String methodSig = list.get(1);
+        // The following maps are keyed by the symbols of call sites
+        IntIntMap callIn = new IntIntMap();
+        IntIntMap callBase = new IntIntMap();
+        db.querySymbols(Query.CALLSITEIN).forEachRemaining(tuple -> {
+            int call = tuple[0];
+            int methodSig = tuple[1];
             callIn.put(call, methodSig);
         });
-        db.query(Query.INST_CALL_RECV).forEachRemaining(list -> {
-            String call = list.get(0);
-            String baseVar = list.get(1);
+        db.querySymbols(Query.INST_CALL_RECV).forEachRemaining(tuple -> {
+            int call = tuple[0];
+            int baseVar = tuple[1];
             callBase.put(call, baseVar);
         });
-        db.query(Query.CALL_EDGE).forEachRemaining(list -> {
-            String callsiteStr = list.get(0);
-            String callerSig = callIn.get(callsiteStr);
-            if (callerSig != null) {
+        db.querySymbols(Query.CALL_EDGE).forEachRemaining(tuple -> {
+            int callsite = tuple[0];
+            int callerSig = callIn.get(callsite);
+            if (callerSig != IntIntMap.ABSENT) {
                 Method caller = mtdFactory.get(callerSig);
-                Method callee = mtdFactory.get(list.get(1));
-                caller.addToAttributeSet(CALLEE, callee);
+                Method callee = mtdFactory.get(tuple[1]);
+                callees.add(caller, callee);
                 reachableMethods.add(caller);
                 reachableMethods.add(callee);
 
@@ -439,15 +553,15 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
                 if (callee.isInstance()) {
                     InstanceMethod m = (InstanceMethod) callee;
                     Variable thisVar = m.getThis();
-                    String baseVarStr = callBase.get(callsiteStr);
-                    if (baseVarStr != null) {
-                        Variable baseVar = varFactory.get(baseVarStr);
+                    int baseVarSym = callBase.get(callsite);
+                    if (baseVarSym != IntIntMap.ABSENT) {
+                        Variable baseVar = varFactory.get(baseVarSym);
                         thisAssign.add(new Pair<>(thisVar, baseVar));
                     }
                 }
 
             } else if (Global.isDebug()) {
-                System.out.println("Null caller of: " + list.get(0));
+                System.out.println("Null caller of: " + symbols.text(callsite));
             }
         });
     }
@@ -460,27 +574,27 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
                 .forEach(instMtd -> {
                     Variable thisVar = instMtd.getThis();
                     pointsToSetOf(thisVar).forEach(obj -> {
-                        obj.addToAttributeSet(MTD_ON, instMtd);
+                        mtdOn.add(obj, instMtd);
                     });
                 });
     }
 
     private void buildVarDeclaringMethods(VariableFactory varFactory,
                                           MethodFactory mtdFactory) {
-        db.query(Query.VAR_IN).forEachRemaining(list -> {
-            Variable var = varFactory.get(list.get(0));
-            Method inMethod = mtdFactory.get(list.get(1));
-            var.setAttribute(DECLARING, inMethod);
-            inMethod.addToAttributeSet(VARS_IN, var);
+        db.querySymbols(Query.VAR_IN).forEachRemaining(tuple -> {
+            Variable var = varFactory.get(tuple[0]);
+            Method inMethod = mtdFactory.get(tuple[1]);
+            declaring.set(var, inMethod);
+            varsIn.add(inMethod, var);
         });
     }
 
     private void buildObjectAssignedVariables(ObjFactory objFactory,
                                               VariableFactory varFactory) {
-        db.query(Query.OBJECT_ASSIGN).forEachRemaining(list -> {
-            Obj obj = objFactory.get(list.get(0));
-            Variable var = varFactory.get(list.get(1));
-            obj.setAttribute(OBJECT_ASSIGNED, var);
+        db.querySymbols(Query.OBJECT_ASSIGN).forEachRemaining(tuple -> {
+            Obj obj = objFactory.get(tuple[0]);
+            Variable var = varFactory.get(tuple[1]);
+            objectAssigned.set(obj, var);
         });
     }
 
@@ -490,15 +604,15 @@ public class DoopPointsToAnalysis implements PointsToAnalysis {
             String sig = m.toString();
             String typeName = sig.substring(1, sig.indexOf(':'));
             Type type = typeFactory.get(typeName);
-            m.setAttribute(DECLARING_TYPE, type);
+            declaringType.set(m, type);
         });
     }
 
     private void buildDirectSuperType(TypeFactory typeFactory) {
         directSuperType = new HashMap<>();
-        db.query(Query.DIRECT_SUPER_TYPE).forEachRemaining(list -> {
-            Type type = typeFactory.get(list.get(0));
-            Type superType = typeFactory.get(list.get(1));
+        db.querySymbols(Query.DIRECT_SUPER_TYPE).forEachRemaining(tuple -> {
+            Type type = typeFactory.get(tuple[0]);
+            Type superType = typeFactory.get(tuple[1]);
             directSuperType.put(type, superType);
         });
     }
@@ -0,0 +1,202 @@
+package ptatoolkit.zipper.flowgraph;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ptatoolkit.pta.basic.Method;
+import ptatoolkit.util.IntIntMap;
+import ptatoolkit.util.IntStack;
+import ptatoolkit.zipper.pta.PointsToAnalysis;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A bounded, concurrent cache of the assignment closures of variable
+ * nodes in object flow graph, which is shared by the flow analyses of
+ * all types.
+ *
+ * The assignment closure of a node under a set of PCE methods consists
+ * of the nodes reachable from the node via LOCAL_ASSIGN edges and the
+ * INTERPROCEDURAL_ASSIGN edges whose targets are declared in the PCE
+ * methods, together with these edges. As the closure depends only on
+ * the node and the PCE methods, the types with the same (hash-consed)
+ * PCE methods reuse the closures of each other.
+ *
+ * The cache evicts closures by their memory footprint.
+ */
+public class AssignClosureCache {
+
+    private final PointsToAnalysis pta;
+    private final ObjectFlowGraph ofg;
+    private final Cache<Key, AssignClosure> cache;
+
+    /**
+     * @param maxBytes the maximum total footprint of cached closures
+     */
+    public AssignClosureCache(PointsToAnalysis pta, ObjectFlowGraph ofg,
+                              long maxBytes) {
+        this.pta = pta;
+        this.ofg = ofg;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, AssignClosure closure) -> closure.footprint())
+                .build();
+    }
+
+    /**
+     * @param node
+     * @param pceMethods PCE methods of the type being analyzed,
+     *                   which are compared by identity
+     * @return the assignment closure of node under pceMethods.
+     */
+    public AssignClosure get(VarNode node, Set<Method> pceMethods) {
+        try {
+            return cache.get(new Key(node.getID(), pceMethods),
+                    () -> compute(node, pceMethods));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private AssignClosure compute(VarNode root, Set<Method> pceMethods) {
+        IntIntMap indexes = new IntIntMap(); // node ID -> index in closure
+        IntStack nodes = new IntStack();
+        IntStack stack = new IntStack();
+        indexes.put(root.getID(), 0);
+        nodes.push(root.getID());
+        stack.push(root.getID());
+        while (!stack.isEmpty()) {
+            Node node = ofg.getNode(stack.pop());
+            for (int e = ofg.outEdgeStart(node); e < ofg.outEdgeEnd(node); ++e) {
+                Node target = ofg.targetOf(e);
+                if (isAssignFollowed(ofg.kindOf(e), target, pceMethods)
+                        && !indexes.containsKey(target.getID())) {
+                    indexes.put(target.getID(), nodes.size());
+                    nodes.push(target.getID());
+                    stack.push(target.getID());
+                }
+            }
+        }
+        int size = nodes.size();
+        int[] nodeIDs = new int[size];
+        int[] offsets = new int[size + 1];
+        IntStack targets = new IntStack();
+        for (int i = 0; i < size; ++i) {
+            nodeIDs[i] = nodes.get(i);
+            offsets[i] = targets.size();
+            Node node = ofg.getNode(nodeIDs[i]);
+            for (int e = ofg.outEdgeStart(node); e < ofg.outEdgeEnd(node); ++e) {
+                Node target = ofg.targetOf(e);
+                if (isAssignFollowed(ofg.kindOf(e), target, pceMethods)) {
+                    targets.push(target.getID());
+                }
+            }
+        }
+        offsets[size] = targets.size();
+        int[] targetIDs = new int[targets.size()];
+        for (int i = 0; i < targetIDs.length; ++i) {
+            targetIDs[i] = targets.get(i);
+        }
+        return new AssignClosure(nodeIDs, offsets, targetIDs);
+    }
+
+    /**
+     * The same filter as FlowAnalysis for the assignment edges.
+     */
+    private boolean isAssignFollowed(Kind kind, Node target,
+                                     Set<Method> pceMethods) {
+        switch (kind) {
+            case LOCAL_ASSIGN:
+                return true;
+            case INTERPROCEDURAL_ASSIGN:
+                VarNode next = (VarNode) target;
+                return pceMethods.contains(pta.declaringMethodOf(next.getVar()));
+            default:
+                return false;
+        }
+    }
+
+    static boolean isAssignEdge(Kind kind) {
+        return kind == Kind.LOCAL_ASSIGN || kind == Kind.INTERPROCEDURAL_ASSIGN;
+    }
+
+    /**
+     * The nodes of an assignment closure and the followed assignment
+     * edges among them, in CSR form.
+     */
+    public static class AssignClosure {
+
+        private final int[] nodes;
+        private final int[] offsets;
+        private final int[] targets;
+
+        private AssignClosure(int[] nodes, int[] offsets, int[] targets) {
+            this.nodes = nodes;
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+
+        public int size() {
+            return nodes.length;
+        }
+
+        /**
+         * @return ID of the i-th node in the closure
+         */
+        public int nodeAt(int i) {
+            return nodes[i];
+        }
+
+        /**
+         * @return IDs of the targets of the followed assignment
+         * edges from the i-th node, as a range of targetAt()
+         */
+        public int edgeStart(int i) {
+            return offsets[i];
+        }
+
+        public int edgeEnd(int i) {
+            return offsets[i + 1];
+        }
+
+        public int targetAt(int edge) {
+            return targets[edge];
+        }
+
+        private int footprint() {
+            // array headers, the object and its key
+            return 4 * (nodes.length + offsets.length + targets.length) + 96;
+        }
+
+        @Override
+        public String toString() {
+            return "AssignClosure" + Arrays.toString(nodes);
+        }
+    }
+
+    private static final class Key {
+
+        private final int node;
+        private final Set<Method> pceMethods;
+
+        private Key(int node, Set<Method> pceMethods) {
+            this.node = node;
+            this.pceMethods = pceMethods;
+        }
+
+        @Override
+        public int hashCode() {
+            return node * 31 + System.identityHashCode(pceMethods);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return node == key.node && pceMethods == key.pceMethods;
+        }
+    }
+}
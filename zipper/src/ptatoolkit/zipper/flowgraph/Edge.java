@@ -38,26 +38,22 @@ public class Edge {
         return hashCode;
     }
 
+    /**
+     * Edges are compared by their kinds, sources and targets, as the
+     * edges of the OFG are created on demand from its edge arrays,
+     * thus an edge may be represented by different instances.
+     */
     @Override
     public boolean equals(Object other) {
-        if (isOFGEdge()) { // Edges in OFG are unique and their equivalence
-            return this == other; // can be directly tested by ==
-        } else {
-            if (this == other) {
-                return true;
-            }
-            if (!(other instanceof Edge)) {
-                return false;
-            }
-            Edge otherEdge = (Edge) other;
-            return kind.equals(otherEdge.kind) &&
-                    source.equals(otherEdge.source) &&
-                    target.equals(otherEdge.target);
+        if (this == other) {
+            return true;
         }
-    }
-
-    private boolean isOFGEdge() {
-        return !(kind == Kind.WRAPPED_FLOW) &&
-                !(kind == Kind.UNWRAPPED_FLOW);
+        if (!(other instanceof Edge)) {
+            return false;
+        }
+        Edge otherEdge = (Edge) other;
+        return kind == otherEdge.kind &&
+                source.equals(otherEdge.source) &&
+                target.equals(otherEdge.target);
     }
 }
@@ -6,20 +6,26 @@ import ptatoolkit.pta.basic.Method;
 import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Type;
 import ptatoolkit.pta.basic.Variable;
-import ptatoolkit.util.graph.DirectedGraphImpl;
-import ptatoolkit.util.graph.Reachability;
+import ptatoolkit.util.AtomicBitSet;
+import ptatoolkit.util.IntStack;
+import ptatoolkit.util.graph.IntDirectedGraph;
 import ptatoolkit.zipper.analysis.ObjectAllocationGraph;
 import ptatoolkit.zipper.analysis.PotentialContextElement;
 import ptatoolkit.zipper.pta.PointsToAnalysis;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ptatoolkit.util.ANSIColor.BLUE;
@@ -37,19 +43,56 @@ public class FlowAnalysis {
     private Type currentType;
     private Set<Variable> inVars;
     private Set<Node> outNodes;
-    private Set<Node> visitedNodes;
-    private Map<Node, Set<Edge>> wuEdges;
-    private DirectedGraphImpl<Node> pollutionFlowGraph;
-    private Reachability<Node> reachability;
+    private final Map<Node, Set<Edge>> wuEdges = new ConcurrentHashMap<>();
+    // The PFG of current type, which is reused across types
+    private final IntDirectedGraph<Node> pollutionFlowGraph;
+    // The PFG nodes reaching OUT nodes, which are marked by getFlowNodes()
+    // and cleared before it returns
+    private final BitSet reachedOut;
+
+    // Buffers of the iterative DFS, which are reused across types.
+    // The visited nodes are marked in visited and listed in visitedIDs.
+    private final BitSet visited;
+    private final IntStack visitedIDs = new IntStack(1024);
+    // The successors to be followed are kept as (source, target) pairs
+    // in nextSources and nextTargets. Each frame of the DFS stack
+    // consists of the start of its pairs and the cursor to the next pair.
+    private final IntStack frameStarts = new IntStack(1024);
+    private final IntStack frameCursors = new IntStack(1024);
+    private final IntStack nextSources = new IntStack(4096);
+    private final IntStack nextTargets = new IntStack(4096);
+    // Shared assignment closures, which may be null
+    private final AssignClosureCache closures;
+    // Concurrent visited sets of parallel analysis, created on demand
+    private boolean parallel = false;
+    private AtomicBitSet claimed;
+    private AtomicBitSet reached;
 
     public FlowAnalysis(PointsToAnalysis pta,
                         ObjectAllocationGraph oag,
                         PotentialContextElement pce,
                         ObjectFlowGraph ofg) {
+        this(pta, oag, pce, ofg, null);
+    }
+
+    /**
+     * @param closures if not null, the variable nodes are expanded by
+     *                 their (shared) assignment closures at a time.
+     *                 This should be null if ofg is condensed.
+     */
+    public FlowAnalysis(PointsToAnalysis pta,
+                        ObjectAllocationGraph oag,
+                        PotentialContextElement pce,
+                        ObjectFlowGraph ofg,
+                        AssignClosureCache closures) {
         this.pta = pta;
         this.oag = oag;
         this.pce = pce;
         this.objectFlowGraph = ofg;
+        this.closures = closures;
+        this.visited = new BitSet(ofg.nrNodes());
+        this.reachedOut = new BitSet(ofg.nrNodes());
+        this.pollutionFlowGraph = new IntDirectedGraph<>(ofg::getNode);
     }
 
     public void initialize(Type type, Set<Method> inms, Set<Method> outms) {
@@ -64,10 +107,6 @@ public class FlowAnalysis {
                 .map(objectFlowGraph::nodeOf)
                 .filter(n -> n != null)
                 .collect(Collectors.toSet());
-        visitedNodes = new HashSet<>();
-        wuEdges = new HashMap<>();
-        pollutionFlowGraph = new DirectedGraphImpl<>();
-        reachability = new Reachability<>(pollutionFlowGraph);
     }
 
     public void analyze(Method startMethod) {
@@ -87,11 +126,9 @@ public class FlowAnalysis {
             for (Variable param: startMethod.getParameters()) {
                 Node node = objectFlowGraph.nodeOf(param);
                 if (node != null) {
-                    for (Node outNode : outNodes) {
-                        if (reachability.reachableNodesFrom(node).contains(outNode)) {
-                            VarNode outVarNode = (VarNode) outNode;
-                            outMethods.add(pta.declaringMethodOf(outVarNode.getVar()));
-                        }
+                    for (Node outNode : outNodesReachedBy(node)) {
+                        VarNode outVarNode = (VarNode) outNode;
+                        outMethods.add(pta.declaringMethodOf(outVarNode.getVar()));
                     }
                 }
             }
@@ -100,163 +137,525 @@ public class FlowAnalysis {
         }
     }
 
+    /**
+     * Analyze the flows from the parameters of given methods in parallel,
+     * for the types which are too expensive for a single thread.
+     *
+     * The parameters are explored by fork/join tasks, which claim nodes
+     * in a concurrent visited set and split their pending nodes with idle
+     * workers. Each task records the nodes and edges it finds, and these
+     * are merged into the PFG when all tasks finish. As the PFG does not
+     * depend on the visiting order, the result is the same as analyzing
+     * the methods one by one.
+     */
+    public void analyzeInParallel(Collection<Method> startMethods) {
+        if (claimed == null) {
+            claimed = new AtomicBitSet(objectFlowGraph.nrNodes());
+        }
+        parallel = true;
+        IntStack roots = new IntStack();
+        for (Method method : startMethods) {
+            for (Variable param : method.getParameters()) {
+                Node node = objectFlowGraph.nodeOf(param);
+                if (node != null) {
+                    roots.push(node.getID());
+                }
+            }
+        }
+        Queue<FlowTask> finished = new ConcurrentLinkedQueue<>();
+        new FlowTask(roots, finished).invoke();
+        for (FlowTask task : finished) {
+            for (int i = 0; i < task.visitedNodes.size(); ++i) {
+                int id = task.visitedNodes.get(i);
+                visitedIDs.push(id);
+                pollutionFlowGraph.addNode(objectFlowGraph.getNode(id));
+            }
+            for (int i = 0; i < task.edgeSources.size(); ++i) {
+                pollutionFlowGraph.addEdge(
+                        objectFlowGraph.getNode(task.edgeSources.get(i)),
+                        objectFlowGraph.repOf(
+                                objectFlowGraph.getNode(task.edgeTargets.get(i))));
+            }
+        }
+    }
+
     public Set<Node> getFlowNodes() {
+        if (parallel) {
+            return getFlowNodesInParallel();
+        }
+        return expand(nodesReachOutNodes());
+    }
+
+    /**
+     * @return the OFG nodes visited by the analysis of current type,
+     * i.e., the original nodes represented by the nodes of the PFG.
+     */
+    public Set<Node> getVisitedNodes() {
+        return expand(new HashSet<>(pollutionFlowGraph.allNodes()));
+    }
+
+    /**
+     * @param node
+     * @return the OUT nodes which are reachable from node in the PFG
+     * built so far, computed by a forward traversal from node.
+     */
+    public Set<Node> outNodesReachedBy(Node node) {
+        Node start = objectFlowGraph.repOf(node);
+        Set<Node> reachedReps = new HashSet<>();
+        IntStack stack = new IntStack();
+        if (pollutionFlowGraph.hasNode(start)) {
+            reachedReps.add(start);
+            stack.push(start.getID());
+        }
+        while (!stack.isEmpty()) {
+            Node n = objectFlowGraph.getNode(stack.pop());
+            for (Node succ : pollutionFlowGraph.succsOf(n)) {
+                if (reachedReps.add(succ)) {
+                    stack.push(succ.getID());
+                }
+            }
+        }
+        return outNodes.stream()
+                .filter(n -> reachedReps.contains(objectFlowGraph.repOf(n)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the original nodes represented by given nodes of PFG,
+     * which are the representatives of condensed OFG.
+     */
+    private Set<Node> expand(Set<Node> reps) {
+        if (!objectFlowGraph.isCondensed()) {
+            return reps;
+        }
         Set<Node> results = new HashSet<>();
-        for (Node outNode : outNodes) {
-            if (pollutionFlowGraph.allNodes().contains(outNode)) {
-                results.addAll(reachability.nodesReach(outNode));
+        for (Node rep : reps) {
+            for (int i = objectFlowGraph.memberStart(rep);
+                 i < objectFlowGraph.memberEnd(rep); ++i) {
+                results.add(objectFlowGraph.memberAt(i));
             }
         }
         return results;
     }
 
+    /**
+     * @return the number of nodes in the PFG, where each condensed SCC
+     * of OFG counts as one node.
+     */
     public int numberOfPFGNodes() {
-        return pollutionFlowGraph.allNodes().size();
+        return pollutionFlowGraph.nrNodes();
     }
 
     public int numberOfPFGEdges() {
-        int nrEdges = 0;
-        for (Node node : pollutionFlowGraph.allNodes()) {
-            nrEdges += pollutionFlowGraph.succsOf(node).size();
-        }
-        return nrEdges;
+        return pollutionFlowGraph.nrEdges();
     }
 
     public void clear() {
         currentType = null;
         inVars = null;
         outNodes = null;
-        visitedNodes = null;
-        wuEdges = null;
-        pollutionFlowGraph = null;
-        reachability = null;
+        for (int i = 0; i < visitedIDs.size(); ++i) {
+            visited.clear(visitedIDs.get(i));
+            if (parallel) {
+                claimed.clear(visitedIDs.get(i));
+            }
+        }
+        visitedIDs.clear();
+        parallel = false;
+        wuEdges.clear();
+        pollutionFlowGraph.clear();
+    }
+
+    /**
+     * Depth-first search from given node with an explicit stack,
+     * which visits the nodes and adds the edges of the PFG in the
+     * same order as a recursive search. If the OFG is condensed, the
+     * search visits representatives, and the edges of the PFG end in
+     * representatives.
+     */
+    private void dfs(Node root) {
+        if (!enter(root)) {
+            return;
+        }
+        while (!frameStarts.isEmpty()) {
+            int top = frameStarts.size() - 1;
+            int cursor = frameCursors.get(top);
+            if (cursor < nextTargets.size()) {
+                frameCursors.set(top, cursor + 1);
+                Node node = objectFlowGraph.getNode(nextSources.get(cursor));
+                Node nextNode = objectFlowGraph.repOf(
+                        objectFlowGraph.getNode(nextTargets.get(cursor)));
+                pollutionFlowGraph.addEdge(node, nextNode);
+                enter(nextNode);
+            } else { // all successors of the frame are done
+                nextSources.truncate(frameStarts.get(top));
+                nextTargets.truncate(frameStarts.get(top));
+                frameStarts.pop();
+                frameCursors.pop();
+            }
+        }
     }
 
-    private void dfs(Node node) {
+    /**
+     * Visit (the representative of) node, and if it has not been visited,
+     * push a frame of the successors to be followed onto the DFS stack.
+     * @return whether node is newly visited
+     */
+    private boolean enter(Node node) {
         if (Global.isDebug()) {
             System.out.println(color(BLUE, "Node ") + node);
         }
-        if (visitedNodes.contains(node)) { // node has been visited
+        node = objectFlowGraph.repOf(node);
+        if (visited.get(node.getID())) { // node has been visited
             if (Global.isDebug()) {
                 System.out.println(color(RED, "Visited node: ") + node);
             }
+            return false;
+        }
+        frameStarts.push(nextTargets.size());
+        frameCursors.push(nextTargets.size());
+        if (closures != null && node instanceof VarNode) {
+            enterClosure((VarNode) node);
         } else {
-            visitedNodes.add(node);
-            pollutionFlowGraph.addNode(node);
-            // add unwrapped flow edges
-            if (Global.isEnableUnwrappedFlow()) {
-                if (node instanceof VarNode) {
-                    VarNode varNode = (VarNode) node;
-                    Variable var = varNode.getVar();
-                    // Optimization: approximate unwrapped flows to make
-                    // Zipper and pointer analysis run faster
-                    pta.returnToVariablesOf(var).forEach(toVar -> {
-                        Node toNode = objectFlowGraph.nodeOf(toVar);
-                        if (outNodes.contains(toNode)) {
-                            for (Variable inVar : inVars) {
-                                if (!Collections.disjoint(pta.pointsToSetOf(inVar),
-                                        pta.pointsToSetOf(var))) {
-                                    Edge unwrappedEdge =
-                                            new Edge(Kind.UNWRAPPED_FLOW, node, toNode);
-                                    addWUEdge(node, unwrappedEdge);
-                                    break;
-                                }
+            visit(node);
+            pushFollowedSuccessors(node, false);
+        }
+        return true;
+    }
+
+    /**
+     * Visit the nodes of the assignment closure of node at a time.
+     * As the PFG consists of the followed edges of all visited nodes,
+     * which do not depend on the visiting order, this yields the same
+     * PFG as visiting the nodes one by one.
+     */
+    private void enterClosure(VarNode node) {
+        AssignClosureCache.AssignClosure closure =
+                closures.get(node, pce.PCEMethodsOf(currentType));
+        for (int i = 0; i < closure.size(); ++i) {
+            Node member = objectFlowGraph.getNode(closure.nodeAt(i));
+            if (visited.get(member.getID())) {
+                // its successors have been (or are being) followed
+                continue;
+            }
+            visit(member);
+            for (int e = closure.edgeStart(i); e < closure.edgeEnd(i); ++e) {
+                pollutionFlowGraph.addEdge(member,
+                        objectFlowGraph.getNode(closure.targetAt(e)));
+            }
+            pushFollowedSuccessors(member, true);
+        }
+    }
+
+    private void visit(Node node) {
+        visited.set(node.getID());
+        visitedIDs.push(node.getID());
+        pollutionFlowGraph.addNode(node);
+        addUnwrappedEdges(node);
+    }
+
+    /**
+     * Add the unwrapped flow edges from the members of rep.
+     */
+    private void addUnwrappedEdges(Node rep) {
+        for (int i = objectFlowGraph.memberStart(rep);
+             i < objectFlowGraph.memberEnd(rep); ++i) {
+            addUnwrappedEdgesFrom(objectFlowGraph.memberAt(i));
+        }
+    }
+
+    private void addUnwrappedEdgesFrom(Node node) {
+        if (Global.isEnableUnwrappedFlow()) {
+            if (node instanceof VarNode) {
+                VarNode varNode = (VarNode) node;
+                Variable var = varNode.getVar();
+                // Optimization: approximate unwrapped flows to make
+                // Zipper and pointer analysis run faster
+                pta.returnToVariablesOf(var).forEach(toVar -> {
+                    Node toNode = objectFlowGraph.nodeOf(toVar);
+                    if (outNodes.contains(toNode)) {
+                        for (Variable inVar : inVars) {
+                            if (pta.mayAlias(inVar, var)) {
+                                Edge unwrappedEdge =
+                                        new Edge(Kind.UNWRAPPED_FLOW, node, toNode);
+                                addWUEdge(node, unwrappedEdge);
+                                break;
                             }
                         }
-                    });
-                }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Push the followed successors of node onto the current frame.
+     * @param skipAssign whether the assignment edges are skipped, as
+     *                   they have been handled by an assignment closure
+     */
+    private void pushFollowedSuccessors(Node node, boolean skipAssign) {
+        pushFollowedSuccessors(node, skipAssign, nextSources, nextTargets);
+    }
+
+    /**
+     * Push the followed successors of node as (source, target) pairs
+     * onto given stacks. If the OFG is condensed, node is a
+     * representative and its successors are those of its members.
+     */
+    private void pushFollowedSuccessors(Node node, boolean skipAssign,
+                                        IntStack sources, IntStack targets) {
+        for (int e = objectFlowGraph.condensedEdgeStart(node);
+             e < objectFlowGraph.condensedEdgeEnd(node); ++e) {
+            Kind kind = objectFlowGraph.kindOf(e);
+            if (skipAssign && AssignClosureCache.isAssignEdge(kind)) {
+                continue;
+            }
+            Node target = objectFlowGraph.targetOf(e);
+            if (isFollowed(kind, target)) {
+                sources.push(node.getID());
+                targets.push(target.getID());
             }
-            List<Edge> nextEdges = new ArrayList<>();
-            for (Edge edge : outEdgesOf(node)) {
-                switch (edge.getKind()) {
-                    case LOCAL_ASSIGN:
-                    case UNWRAPPED_FLOW: {
-                        nextEdges.add(edge);
+        }
+        for (int i = objectFlowGraph.memberStart(node);
+             i < objectFlowGraph.memberEnd(node); ++i) {
+            Set<Edge> edges = wuEdges.get(objectFlowGraph.memberAt(i));
+            if (edges != null) {
+                for (Edge edge : edges) {
+                    if (isFollowed(edge.getKind(), edge.getTarget())) {
+                        sources.push(node.getID());
+                        targets.push(edge.getTarget().getID());
                     }
-                    break;
-                    case INTERPROCEDURAL_ASSIGN:
-                    case INSTANCE_LOAD:
-                    case WRAPPED_FLOW: {
-                        // next must be a variable
-                        VarNode next = (VarNode) edge.getTarget();
-                        Variable var = next.getVar();
-                        Method inMethod = pta.declaringMethodOf(var);
-                        // Optimization: filter out some potential spurious flows due to
-                        // the imprecision of context-insensitive pre-analysis, which
-                        // helps improve the performance of Zipper and pointer analysis.
-                        if (pce.PCEMethodsOf(currentType).contains(inMethod)) {
-                            nextEdges.add(edge);
-                        }
+                }
+            }
+        }
+    }
+
+    /**
+     * Decide whether the flow along an edge of given kind to target is
+     * followed. Wrapped flow edges from target may be added on the way.
+     */
+    private boolean isFollowed(Kind kind, Node target) {
+        switch (kind) {
+            case LOCAL_ASSIGN:
+            case UNWRAPPED_FLOW: {
+                return true;
+            }
+            case INTERPROCEDURAL_ASSIGN:
+            case INSTANCE_LOAD:
+            case WRAPPED_FLOW: {
+                // next must be a variable
+                VarNode next = (VarNode) target;
+                Variable var = next.getVar();
+                Method inMethod = pta.declaringMethodOf(var);
+                // Optimization: filter out some potential spurious flows due to
+                // the imprecision of context-insensitive pre-analysis, which
+                // helps improve the performance of Zipper and pointer analysis.
+                return pce.PCEMethodsOf(currentType).contains(inMethod);
+            }
+            case INSTANCE_STORE: {
+                InstanceFieldNode next = (InstanceFieldNode) target;
+                Obj base = next.getBase();
+                if (base.getType().equals(currentType)) {
+                    // add wrapped flow edges to this variable
+                    if (Global.isEnableWrappedFlow()) {
+                        pta.methodsInvokedOn(currentType).stream()
+                                .map(m -> ((InstanceMethod) m).getThis())
+                                .map(objectFlowGraph::nodeOf)
+                                .filter(n -> n != null) // filter this variable of native methods
+                                .map(n -> new Edge(Kind.WRAPPED_FLOW, next, n))
+                                .forEach(e -> addWUEdge(next, e));
                     }
-                    break;
-                    case INSTANCE_STORE: {
-                        InstanceFieldNode next = (InstanceFieldNode) edge.getTarget();
-                        Obj base = next.getBase();
-                        if (base.getType().equals(currentType)) {
-                            // add wrapped flow edges to this variable
-                            if (Global.isEnableWrappedFlow()) {
-                                pta.methodsInvokedOn(currentType).stream()
-                                        .map(m -> ((InstanceMethod) m).getThis())
-                                        .map(objectFlowGraph::nodeOf)
-                                        .filter(n -> n != null) // filter this variable of native methods
-                                        .map(n -> new Edge(Kind.WRAPPED_FLOW, next, n))
-                                        .forEach(e -> addWUEdge(next, e));
-                            }
-                            nextEdges.add(edge);
-                        } else if (oag.allocateesOf(currentType).contains(base)) {
-                            // Optimization, similar as above.
-                            if (Global.isEnableWrappedFlow()) {
-                                Node assigned = objectFlowGraph.nodeOf(pta.assignedVarOf(base));
-                                if (assigned != null) {
-                                    Edge e = new Edge(Kind.WRAPPED_FLOW, next, assigned);
-                                    addWUEdge(next, e);
-                                }
-                            }
-                            nextEdges.add(edge);
+                    return true;
+                } else if (oag.allocateesOf(currentType).contains(base)) {
+                    // Optimization, similar as above.
+                    if (Global.isEnableWrappedFlow()) {
+                        Node assigned = objectFlowGraph.nodeOf(pta.assignedVarOf(base));
+                        if (assigned != null) {
+                            Edge e = new Edge(Kind.WRAPPED_FLOW, next, assigned);
+                            addWUEdge(next, e);
                         }
                     }
-                    break;
-                    default: {
-                        throw new RuntimeException("Unknown edge: " + edge);
-                    }
+                    return true;
                 }
+                return false;
             }
-            for (Edge nextEdge : nextEdges) {
-                Node nextNode = nextEdge.getTarget();
-                pollutionFlowGraph.addEdge(node, nextNode);
-                dfs(nextNode);
+            default: {
+                throw new RuntimeException("Unknown edge kind: " + kind);
             }
         }
     }
 
     private void addWUEdge(Node sourceNode, Edge edge) {
-        if (!wuEdges.containsKey(sourceNode)) {
-            wuEdges.put(sourceNode, new HashSet<>());
+        wuEdges.computeIfAbsent(sourceNode, n -> ConcurrentHashMap.newKeySet())
+                .add(edge);
+    }
+
+    /**
+     * @return the nodes which reach OUT nodes in the PFG, computed by a
+     * single backward traversal from all OUT nodes, which marks the
+     * reached nodes in one bitmap instead of labeling each node with
+     * the OUT nodes it reaches.
+     */
+    private Set<Node> nodesReachOutNodes() {
+        Set<Node> results = new HashSet<>();
+        IntStack stack = new IntStack();
+        for (Node outNode : outNodes) {
+            Node rep = objectFlowGraph.repOf(outNode);
+            if (pollutionFlowGraph.hasNode(rep) && !reachedOut.get(rep.getID())) {
+                reachedOut.set(rep.getID());
+                stack.push(rep.getID());
+            }
+        }
+        while (!stack.isEmpty()) {
+            Node node = objectFlowGraph.getNode(stack.pop());
+            results.add(node);
+            for (Node pred : pollutionFlowGraph.predsOf(node)) {
+                if (!reachedOut.get(pred.getID())) {
+                    reachedOut.set(pred.getID());
+                    stack.push(pred.getID());
+                }
+            }
         }
-        wuEdges.get(sourceNode).add(edge);
+        results.forEach(node -> reachedOut.clear(node.getID()));
+        return results;
     }
 
     /**
-     *
-     * @param node
-     * @return out edges of node from OFG, and wuEdges, if present
+     * @return the nodes which reach OUT nodes in the PFG, computed by
+     * parallel backward traversal from all OUT nodes.
+     */
+    private Set<Node> getFlowNodesInParallel() {
+        if (reached == null) {
+            reached = new AtomicBitSet(objectFlowGraph.nrNodes());
+        }
+        IntStack roots = new IntStack();
+        for (Node outNode : outNodes) {
+            Node rep = objectFlowGraph.repOf(outNode);
+            if (pollutionFlowGraph.hasNode(rep)) {
+                roots.push(rep.getID());
+            }
+        }
+        Queue<ReachTask> finished = new ConcurrentLinkedQueue<>();
+        new ReachTask(roots, finished).invoke();
+        Set<Node> results = new HashSet<>();
+        for (ReachTask task : finished) {
+            for (int i = 0; i < task.reachedNodes.size(); ++i) {
+                int id = task.reachedNodes.get(i);
+                reached.clear(id);
+                results.add(objectFlowGraph.getNode(id));
+            }
+        }
+        return expand(results);
+    }
+
+    /**
+     * Move the upper half of stack to a new task if there are idle
+     * workers, and fork the new task.
      */
-    private Set<Edge> outEdgesOf(Node node) {
-        Set<Edge> outEdges = objectFlowGraph.outEdgesOf(node);
-        if (wuEdges.containsKey(node)) {
-            outEdges = new HashSet<>(outEdges);
-            outEdges.addAll(wuEdges.get(node));
+    private static <T extends ForkJoinTask<?>> void splitIfIdle(
+            IntStack stack, Function<IntStack, T> newTask, List<T> forked) {
+        if (stack.size() >= SPLIT_THRESHOLD
+                && ForkJoinTask.getSurplusQueuedTaskCount() == 0) {
+            int half = stack.size() / 2;
+            IntStack upper = new IntStack(stack.size() - half);
+            for (int i = half; i < stack.size(); ++i) {
+                upper.push(stack.get(i));
+            }
+            stack.truncate(half);
+            T task = newTask.apply(upper);
+            task.fork();
+            forked.add(task);
         }
-        return outEdges;
     }
 
-    private void outputPollutionFlowGraphSize() {
-        int nrNodes = pollutionFlowGraph.allNodes().size();
-        int nrEdges = 0;
-        for (Node node : pollutionFlowGraph.allNodes()) {
-            nrEdges += pollutionFlowGraph.succsOf(node).size();
+    private static final int SPLIT_THRESHOLD = 64;
+
+    /**
+     * A task of parallel flow analysis, which explores the PFG from
+     * its pending nodes.
+     */
+    private class FlowTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntStack stack;
+        private final Queue<FlowTask> finished;
+        private final IntStack visitedNodes = new IntStack();
+        private final IntStack edgeSources = new IntStack();
+        private final IntStack edgeTargets = new IntStack();
+
+        private FlowTask(IntStack stack, Queue<FlowTask> finished) {
+            this.stack = stack;
+            this.finished = finished;
+        }
+
+        @Override
+        protected void compute() {
+            List<FlowTask> forked = new ArrayList<>();
+            int nrEdges = 0;
+            while (!stack.isEmpty()) {
+                splitIfIdle(stack, s -> new FlowTask(s, finished), forked);
+                Node node = objectFlowGraph.repOf(
+                        objectFlowGraph.getNode(stack.pop()));
+                if (!claimed.set(node.getID())) {
+                    continue; // node has been visited
+                }
+                visitedNodes.push(node.getID());
+                addUnwrappedEdges(node);
+                pushFollowedSuccessors(node, false, edgeSources, edgeTargets);
+                for (; nrEdges < edgeTargets.size(); ++nrEdges) {
+                    Node target = objectFlowGraph.repOf(
+                            objectFlowGraph.getNode(edgeTargets.get(nrEdges)));
+                    if (!claimed.get(target.getID())) {
+                        stack.push(target.getID());
+                    }
+                }
+            }
+            finished.add(this);
+            forked.forEach(ForkJoinTask::join);
+        }
+    }
+
+    /**
+     * A task of parallel backward traversal of the PFG.
+     */
+    private class ReachTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntStack stack;
+        private final Queue<ReachTask> finished;
+        private final IntStack reachedNodes = new IntStack();
+
+        private ReachTask(IntStack stack, Queue<ReachTask> finished) {
+            this.stack = stack;
+            this.finished = finished;
+        }
+
+        @Override
+        protected void compute() {
+            List<ReachTask> forked = new ArrayList<>();
+            while (!stack.isEmpty()) {
+                splitIfIdle(stack, s -> new ReachTask(s, finished), forked);
+                Node node = objectFlowGraph.getNode(stack.pop());
+                if (!reached.set(node.getID())) {
+                    continue;
+                }
+                reachedNodes.push(node.getID());
+                for (Node pred : pollutionFlowGraph.predsOf(node)) {
+                    if (!reached.get(pred.getID())) {
+                        stack.push(pred.getID());
+                    }
+                }
+            }
+            finished.add(this);
+            forked.forEach(ForkJoinTask::join);
         }
+    }
+
+    private void outputPollutionFlowGraphSize() {
         System.out.printf("#Size of PFG of %s: %d nodes, %d edges.\n",
-                currentType, nrNodes, nrEdges);
+                currentType, pollutionFlowGraph.nrNodes(),
+                pollutionFlowGraph.nrEdges());
     }
 }
@@ -1,21 +1,22 @@
 package ptatoolkit.zipper.flowgraph;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import ptatoolkit.pta.util.Numberable;
 
-public class Node {
+/**
+ * A node of object flow graph. The nodes of an object flow graph
+ * are numbered densely from 0, and their out edges are kept by
+ * the graph, indexed by the node IDs.
+ */
+public abstract class Node extends Numberable {
 
-    private Set<Edge> outEdges = Collections.emptySet();
+    private final int id;
 
-    public void addOutEdge(Edge e) {
-        if (outEdges.isEmpty()) {
-            outEdges = new HashSet<>();
-        }
-        outEdges.add(e);
+    protected Node(int id) {
+        this.id = id;
     }
 
-    public Set<Edge> getOutEdges() {
-        return outEdges;
+    @Override
+    public int getID() {
+        return id;
     }
 }
@@ -1,23 +1,67 @@
 package ptatoolkit.zipper.flowgraph;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import ptatoolkit.Global;
 import ptatoolkit.pta.basic.Field;
 import ptatoolkit.pta.basic.Obj;
 import ptatoolkit.pta.basic.Variable;
+import ptatoolkit.pta.util.ValueColumn;
+import ptatoolkit.util.graph.IntStronglyConnectedComponents;
 import ptatoolkit.zipper.pta.PointsToAnalysis;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * The object flow graph (OFG), which is immutable after construction
+ * and stored in compressed sparse row (CSR) form.
+ *
+ * The nodes are numbered densely by their IDs. The out edges of node n
+ * are the edge indices [outEdgeStart(n), outEdgeEnd(n)), and each edge
+ * is stored as the ID of its target and its kind (as a byte). Duplicate
+ * edges are merged. Edge objects are only created on demand by the
+ * {@link IObjectFlowGraph} view, e.g., for {@link Dumper}.
+ *
+ * The graph can be condensed by {@link #condense()}, which collapses
+ * each SCC over LOCAL_ASSIGN edges into its representative, i.e., the
+ * member with the smallest ID. LOCAL_ASSIGN is the only kind of edges
+ * which is followed for every type, thus once any member of such an SCC
+ * is visited by the flow analysis, all members are visited and reach
+ * each other. The flow analysis can then traverse the condensed graph,
+ * whose out edges of a representative are the out edges of all members
+ * except those within the SCC. The original edges are kept intact.
+ */
 public class ObjectFlowGraph implements IObjectFlowGraph {
 
-    private Set<Node> nodes;
-    private Map<Variable, VarNode> var2node;
-    private Table<Obj, Field, InstanceFieldNode> field2node;
+    private static final Kind[] KINDS = Kind.values();
+
+    private Node[] nodes;
+    private int[] offsets;
+    private int[] targets;
+    private byte[] kinds;
+    private int nrEdges;
+    private final ValueColumn<VarNode> var2node = new ValueColumn<>();
+
+    // Condensation, which is null until condense() is called.
+    // The members of representative r are
+    // members[memberOffsets[r] .. memberOffsets[r + 1]), and its
+    // condensed out edges are the edge indices
+    // [condensedStarts[r], condensedEnds[r]), which are appended to
+    // the original edges for non-trivial SCCs. Both ranges are empty
+    // for non-representatives.
+    private int[] reps;
+    private int[] memberOffsets;
+    private int[] members;
+    private int[] condensedStarts;
+    private int[] condensedEnds;
+    private int nrReps;
 
     public ObjectFlowGraph(PointsToAnalysis pta) {
         init(pta);
@@ -29,67 +73,315 @@ public class ObjectFlowGraph implements IObjectFlowGraph {
      * @return the VarNode representing var
      */
     public VarNode nodeOf(Variable var) {
-//        if (!var2node.containsKey(var)) {
-//            throw new RuntimeException(var + " does not exist in Flow Graph");
-//        }
-        return var2node.get(var);
+        return var != null ? var2node.get(var) : null;
+    }
+
+    /**
+     * @param id
+     * @return the node of given ID
+     */
+    public Node getNode(int id) {
+        return nodes[id];
+    }
+
+    public int nrNodes() {
+        return nodes.length;
+    }
+
+    public int nrEdges() {
+        return nrEdges;
+    }
+
+    /**
+     * @return the index of the first out edge of node
+     */
+    public int outEdgeStart(Node node) {
+        return offsets[node.getID()];
+    }
+
+    /**
+     * @return the index after the last out edge of node
+     */
+    public int outEdgeEnd(Node node) {
+        return offsets[node.getID() + 1];
+    }
+
+    public Kind kindOf(int edge) {
+        return KINDS[kinds[edge]];
+    }
+
+    public Node targetOf(int edge) {
+        return nodes[targets[edge]];
+    }
+
+    /**
+     * Collapse the SCCs over LOCAL_ASSIGN edges.
+     */
+    public void condense() {
+        if (reps != null) {
+            return;
+        }
+        int nrNodes = nodes.length;
+        reps = new int[nrNodes];
+        for (int n = 0; n < nrNodes; ++n) {
+            reps[n] = n;
+        }
+        // the subgraph of LOCAL_ASSIGN edges in CSR form
+        int[] localOffsets = new int[nrNodes + 1];
+        int nrLocalEdges = 0;
+        for (int e = 0; e < nrEdges; ++e) {
+            if (kindOf(e) == Kind.LOCAL_ASSIGN) {
+                ++nrLocalEdges;
+            }
+        }
+        int[] localSuccs = new int[nrLocalEdges];
+        for (int n = 0, i = 0; n < nrNodes; ++n) {
+            localOffsets[n] = i;
+            for (int e = offsets[n]; e < offsets[n + 1]; ++e) {
+                if (kindOf(e) == Kind.LOCAL_ASSIGN) {
+                    localSuccs[i++] = targets[e];
+                }
+            }
+        }
+        localOffsets[nrNodes] = nrLocalEdges;
+        IntStronglyConnectedComponents scc = new IntStronglyConnectedComponents(
+                nrNodes, localOffsets, localSuccs, Math.max(Global.getThread(), 1));
+        for (int c = 0; c < scc.nrComponents(); ++c) {
+            if (scc.memberEnd(c) - scc.memberStart(c) > 1) {
+                int rep = Integer.MAX_VALUE;
+                for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                    rep = Math.min(rep, scc.memberAt(i));
+                }
+                for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                    reps[scc.memberAt(i)] = rep;
+                }
+            }
+        }
+        // group the members by their representatives
+        memberOffsets = new int[nrNodes + 1];
+        for (int n = 0; n < nrNodes; ++n) {
+            ++memberOffsets[reps[n] + 1];
+        }
+        for (int n = 0; n < nrNodes; ++n) {
+            if (reps[n] == n) {
+                ++nrReps;
+            }
+            memberOffsets[n + 1] += memberOffsets[n];
+        }
+        members = new int[nrNodes];
+        int[] next = Arrays.copyOf(memberOffsets, nrNodes);
+        for (int n = 0; n < nrNodes; ++n) {
+            members[next[reps[n]]++] = n;
+        }
+        // merge the out edges of the members, except the edges in SCCs.
+        // The representatives of trivial SCCs keep their original edges.
+        condensedStarts = Arrays.copyOf(offsets, nrNodes);
+        condensedEnds = Arrays.copyOfRange(offsets, 1, nrNodes + 1);
+        long[] condensed = new long[1024];
+        int size = 0;
+        for (int n = 0; n < nrNodes; ++n) {
+            if (reps[n] != n) {
+                condensedEnds[n] = condensedStarts[n];
+            } else if (memberOffsets[n + 1] - memberOffsets[n] > 1) {
+                int from = size;
+                for (int i = memberOffsets[n]; i < memberOffsets[n + 1]; ++i) {
+                    int member = members[i];
+                    for (int e = offsets[member]; e < offsets[member + 1]; ++e) {
+                        if (kindOf(e) == Kind.LOCAL_ASSIGN && reps[targets[e]] == n) {
+                            continue;
+                        }
+                        if (size == condensed.length) {
+                            condensed = Arrays.copyOf(condensed, size * 2);
+                        }
+                        condensed[size++] = ((long) kinds[e] << 32) | targets[e];
+                    }
+                }
+                // merge duplicate edges
+                Arrays.sort(condensed, from, size);
+                int to = size;
+                size = from;
+                for (int i = from; i < to; ++i) {
+                    if (i == from || condensed[i] != condensed[i - 1]) {
+                        condensed[size++] = condensed[i];
+                    }
+                }
+                condensedStarts[n] = nrEdges + from;
+                condensedEnds[n] = nrEdges + size;
+            }
+        }
+        targets = Arrays.copyOf(targets, nrEdges + size);
+        kinds = Arrays.copyOf(kinds, nrEdges + size);
+        for (int i = 0; i < size; ++i) {
+            targets[nrEdges + i] = (int) condensed[i];
+            kinds[nrEdges + i] = (byte) (condensed[i] >>> 32);
+        }
+    }
+
+    public boolean isCondensed() {
+        return reps != null;
+    }
+
+    /**
+     * @return the number of representatives in the condensed graph.
+     */
+    public int nrReps() {
+        return reps != null ? nrReps : nodes.length;
+    }
+
+    /**
+     * @return the representative of node, which is node itself if
+     * this graph is not condensed.
+     */
+    public Node repOf(Node node) {
+        return reps != null ? nodes[reps[node.getID()]] : node;
+    }
+
+    /**
+     * @return the index of the first member of rep, see memberAt()
+     */
+    public int memberStart(Node rep) {
+        return reps != null ? memberOffsets[rep.getID()] : rep.getID();
+    }
+
+    /**
+     * @return the index after the last member of rep
+     */
+    public int memberEnd(Node rep) {
+        return reps != null ? memberOffsets[rep.getID() + 1] : rep.getID() + 1;
+    }
+
+    public Node memberAt(int i) {
+        return nodes[reps != null ? members[i] : i];
+    }
+
+    /**
+     * @return the index of the first out edge of rep in the condensed
+     * graph, which are the original out edges if this graph is not
+     * condensed. The targets of the edges are original nodes.
+     */
+    public int condensedEdgeStart(Node rep) {
+        return reps != null ? condensedStarts[rep.getID()] : outEdgeStart(rep);
+    }
+
+    /**
+     * @return the index after the last out edge of rep in the
+     * condensed graph
+     */
+    public int condensedEdgeEnd(Node rep) {
+        return reps != null ? condensedEnds[rep.getID()] : outEdgeEnd(rep);
     }
 
     public Set<Node> succsOf(Node node) {
-        return node.getOutEdges()
-                .stream()
-                .map(Edge::getTarget)
-                .collect(Collectors.toSet());
+        Set<Node> succs = new HashSet<>();
+        for (int e = outEdgeStart(node); e < outEdgeEnd(node); ++e) {
+            succs.add(targetOf(e));
+        }
+        return succs;
     }
 
+    @Override
     public Set<Edge> outEdgesOf(Node node) {
-        return node.getOutEdges();
+        int start = outEdgeStart(node);
+        int end = outEdgeEnd(node);
+        return new AbstractSet<Edge>() {
+
+            @Override
+            public Iterator<Edge> iterator() {
+                return new Iterator<Edge>() {
+
+                    private int edge = start;
+
+                    @Override
+                    public boolean hasNext() {
+                        return edge < end;
+                    }
+
+                    @Override
+                    public Edge next() {
+                        if (edge >= end) {
+                            throw new NoSuchElementException();
+                        }
+                        Edge e = new Edge(kindOf(edge), node, targetOf(edge));
+                        ++edge;
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return end - start;
+            }
+        };
     }
 
+    @Override
     public Set<Node> allNodes() {
-        return nodes;
+        return new AbstractSet<Node>() {
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Node)) {
+                    return false;
+                }
+                int id = ((Node) o).getID();
+                return id < nodes.length && nodes[id] == o;
+            }
+
+            @Override
+            public Iterator<Node> iterator() {
+                return Arrays.asList(nodes).iterator();
+            }
+
+            @Override
+            public int size() {
+                return nodes.length;
+            }
+        };
     }
 
     private void init(PointsToAnalysis pta) {
-        nodes = new HashSet<>();
-        var2node = new HashMap<>();
+        List<Node> nodeList = new ArrayList<>();
+        EdgeList edges = new EdgeList();
 
         // Add local assignment edges.
         pta.localAssignIterator().forEachRemaining(pair -> {
             Variable to = pair.getFirst();
             Variable from = pair.getSecond();
-            VarNode toNode = getVarNode(to);
-            VarNode fromNode = getVarNode(from);
-            fromNode.addOutEdge(new Edge(Kind.LOCAL_ASSIGN, fromNode, toNode));
+            VarNode toNode = getVarNode(to, nodeList);
+            VarNode fromNode = getVarNode(from, nodeList);
+            edges.add(Kind.LOCAL_ASSIGN, fromNode, toNode);
         });
 
         // Add inter-procedural assignment edges.
         pta.interProceduralAssignIterator().forEachRemaining(pair -> {
             Variable to = pair.getFirst();
             Variable from = pair.getSecond();
-            VarNode toNode = getVarNode(to);
-            VarNode fromNode = getVarNode(from);
-            fromNode.addOutEdge(new Edge(Kind.INTERPROCEDURAL_ASSIGN, fromNode, toNode));
+            VarNode toNode = getVarNode(to, nodeList);
+            VarNode fromNode = getVarNode(from, nodeList);
+            edges.add(Kind.INTERPROCEDURAL_ASSIGN, fromNode, toNode);
         });
 
         // Add this-passing assignment edges
         pta.thisAssignIterator().forEachRemaining(pair -> {
             Variable thisVar = pair.getFirst();
             Variable baseVar = pair.getSecond();
-            VarNode toNode = getVarNode(thisVar);
-            VarNode fromNode = getVarNode(baseVar);
-            fromNode.addOutEdge(new Edge(Kind.INTERPROCEDURAL_ASSIGN, fromNode, toNode));
+            VarNode toNode = getVarNode(thisVar, nodeList);
+            VarNode fromNode = getVarNode(baseVar, nodeList);
+            edges.add(Kind.INTERPROCEDURAL_ASSIGN, fromNode, toNode);
         });
 
-        field2node = HashBasedTable.create();
+        // The field nodes are keyed by the IDs of base objects and fields
+        Map<Long, InstanceFieldNode> field2node = new HashMap<>();
         // Add instance load edges;
         pta.instanceLoadIterator().forEachRemaining(triple -> {
             Variable var = triple.getFirst();
             Obj base = triple.getSecond();
             Field field = triple.getThird();
-            VarNode varNode = getVarNode(var);
-            InstanceFieldNode fieldNode = getInstanceFieldNode(base, field);
-            fieldNode.addOutEdge(new Edge(Kind.INSTANCE_LOAD, fieldNode, varNode));
+            VarNode varNode = getVarNode(var, nodeList);
+            InstanceFieldNode fieldNode =
+                    getInstanceFieldNode(base, field, field2node, nodeList);
+            edges.add(Kind.INSTANCE_LOAD, fieldNode, varNode);
         });
 
         // Add instance store edges;
@@ -97,10 +389,14 @@ public class ObjectFlowGraph implements IObjectFlowGraph {
             Obj base = triple.getFirst();
             Field field = triple.getSecond();
             Variable var = triple.getThird();
-            VarNode varNode = getVarNode(var);
-            InstanceFieldNode fieldNode = getInstanceFieldNode(base, field);
-            varNode.addOutEdge(new Edge(Kind.INSTANCE_STORE, varNode, fieldNode));
+            VarNode varNode = getVarNode(var, nodeList);
+            InstanceFieldNode fieldNode =
+                    getInstanceFieldNode(base, field, field2node, nodeList);
+            edges.add(Kind.INSTANCE_STORE, varNode, fieldNode);
         });
+
+        nodes = nodeList.toArray(new Node[0]);
+        edges.toCSR(nodes.length);
     }
 
     /**
@@ -109,14 +405,14 @@ public class ObjectFlowGraph implements IObjectFlowGraph {
      * @return the VarNode representing var.
      * If the node does not exist, it will be created.
      */
-    private VarNode getVarNode(Variable var) {
-        if (!var2node.containsKey(var)) {
-            VarNode node = new VarNode(var);
-            var2node.put(var, node);
-            nodes.add(node);
-            return node;
+    private VarNode getVarNode(Variable var, List<Node> nodeList) {
+        VarNode node = var2node.get(var);
+        if (node == null) {
+            node = new VarNode(nodeList.size(), var);
+            var2node.set(var, node);
+            nodeList.add(node);
         }
-        return var2node.get(var);
+        return node;
     }
 
     /**
@@ -126,13 +422,81 @@ public class ObjectFlowGraph implements IObjectFlowGraph {
      * @return the instance field representing base.field.
      * If the node does not exist, it will be created.
      */
-    private InstanceFieldNode getInstanceFieldNode(Obj base, Field field) {
-        if (!field2node.contains(base, field)) {
-            InstanceFieldNode node = new InstanceFieldNode(base, field);
-            field2node.put(base, field, node);
-            nodes.add(node);
-            return node;
+    private InstanceFieldNode getInstanceFieldNode(
+            Obj base, Field field,
+            Map<Long, InstanceFieldNode> field2node, List<Node> nodeList) {
+        long key = ((long) base.getID() << 32) | field.getID();
+        InstanceFieldNode node = field2node.get(key);
+        if (node == null) {
+            node = new InstanceFieldNode(nodeList.size(), base, field);
+            field2node.put(key, node);
+            nodeList.add(node);
+        }
+        return node;
+    }
+
+    /**
+     * The subgraph of LOCAL_ASSIGN edges, for computing its SCCs.
+     * Its predecessors are not available.
+     */
+    /**
+     * Edges collected during construction, which are then
+     * sorted by their sources into the CSR arrays of the graph.
+     */
+    private class EdgeList {
+
+        private int[] sources = new int[1024];
+        // (kind << 32) | target of each edge
+        private long[] keys = new long[1024];
+        private int size = 0;
+
+        private void add(Kind kind, Node source, Node target) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            sources[size] = source.getID();
+            keys[size] = ((long) kind.ordinal() << 32) | target.getID();
+            ++size;
+        }
+
+        private void toCSR(int nrNodes) {
+            // counting sort by source
+            int[] starts = new int[nrNodes + 1];
+            for (int i = 0; i < size; ++i) {
+                ++starts[sources[i] + 1];
+            }
+            for (int n = 0; n < nrNodes; ++n) {
+                starts[n + 1] += starts[n];
+            }
+            long[] sorted = new long[size];
+            int[] next = Arrays.copyOf(starts, nrNodes);
+            for (int i = 0; i < size; ++i) {
+                sorted[next[sources[i]]++] = keys[i];
+            }
+            sources = null;
+            keys = null;
+            // sort the out edges of each node and merge duplicate edges
+            offsets = new int[nrNodes + 1];
+            int nrEdges = 0;
+            for (int n = 0; n < nrNodes; ++n) {
+                int from = starts[n], to = starts[n + 1];
+                Arrays.sort(sorted, from, to);
+                offsets[n] = nrEdges;
+                for (int i = from; i < to; ++i) {
+                    if (i == from || sorted[i] != sorted[i - 1]) {
+                        sorted[nrEdges++] = sorted[i];
+                    }
+                }
+            }
+            offsets[nrNodes] = nrEdges;
+            ObjectFlowGraph.this.nrEdges = nrEdges;
+            targets = new int[nrEdges];
+            kinds = new byte[nrEdges];
+            for (int e = 0; e < nrEdges; ++e) {
+                targets[e] = (int) sorted[e];
+                kinds[e] = (byte) (sorted[e] >>> 32);
+            }
         }
-        return field2node.get(base, field);
     }
 }
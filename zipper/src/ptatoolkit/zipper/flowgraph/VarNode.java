@@ -6,7 +6,8 @@ public class VarNode extends Node {
 
     private final Variable var;
 
-    public VarNode(Variable var) {
+    public VarNode(int id, Variable var) {
+        super(id);
         this.var = var;
     }
 
@@ -14,23 +15,6 @@ public class VarNode extends Node {
         return var;
     }
 
-    @Override
-    public int hashCode() {
-        return var.hashCode();
-    }
-
-    @Override
-    public boolean equals(Object other) {
-        if (this == other) {
-            return true;
-        }
-        if (! (other instanceof VarNode)) {
-            return false;
-        }
-        VarNode anoNode = (VarNode) other;
-        return var.equals(anoNode.var);
-    }
-
     @Override
     public String toString() {
         return "VarNode: <" + var + ">";
@@ -9,6 +9,7 @@ import ptatoolkit.pta.basic.Variable;
 import ptatoolkit.util.Pair;
 import ptatoolkit.util.Triple;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -36,6 +37,15 @@ public interface PointsToAnalysis {
      */
     int pointsToSetSizeOf(Variable var);
 
+    /**
+     * @param var1
+     * @param var2
+     * @return whether the points-to sets of var1 and var2 intersect
+     */
+    default boolean mayAlias(Variable var1, Variable var2) {
+        return !Collections.disjoint(pointsToSetOf(var1), pointsToSetOf(var2));
+    }
+
     /**
      * @return the size of points-to set of the whole program
      */
@@ -149,4 +159,31 @@ public interface PointsToAnalysis {
      * @return all objects of the given type
      */
     Set<Obj> objectsOfType(Type type);
+
+    /**
+     * @return a digest of the inputs of this points-to analysis, which
+     * changes whenever the inputs change, or null if it is unavailable.
+     */
+    default String inputDigest() {
+        return null;
+    }
+
+    /**
+     * @return a cheap stamp of the inputs of this points-to analysis,
+     * e.g., the sizes and modification times of the input files, such
+     * that {@link #inputDigest()} is unchanged if the stamp is unchanged,
+     * or null if it is unavailable.
+     */
+    default String inputStamp() {
+        return null;
+    }
+
+    /**
+     * @return the {@link #inputStamp()} taken before the inputs were
+     * read, which differs from the current stamp if the inputs have
+     * changed since then, or null if it is unavailable.
+     */
+    default String loadedInputStamp() {
+        return null;
+    }
 }
@@ -0,0 +1,95 @@
+package ptatoolkit.doop;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that DumpTokenizer splits each line of a dump as
+ * line.trim().split(", ") does, whether the dump is mapped in windows
+ * which the lines cross, or read from a stream.
+ */
+public class DumpTokenizerTest {
+
+    // small enough that many lines cross a window boundary
+    private static final int WINDOW_SIZE = 32;
+    private static final String[] LINES = {
+            ", a", "a, ", "a, , b", ", ", "a, b\r", ", a, \r", "",
+            "\r", " \t a, b \t ", "a,b, c", "a, , ", ",, ,", "\u00e9, \u6f22\u5b57, \u00fc\r",
+            "x y, z", "a\rb, c", ", , , a",
+    };
+    // pieces of random lines, which are at most 20 bytes long
+    private static final String[] PIECES = {
+            "a", "bc", "", " ", ",", ", ", "\t", "\r", "\u00e9", "\u6f22",
+    };
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(2018);
+        List<String> lines = new ArrayList<>(Arrays.asList(LINES));
+        for (int i = 0; i < 2000; ++i) {
+            StringBuilder line = new StringBuilder();
+            for (int n = random.nextInt(8); n > 0; --n) {
+                line.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            lines.add(line.toString());
+        }
+        // the last line may not end with a newline, so it is not empty
+        lines.add("a, b");
+        check(String.join("\n", lines) + "\n", lines);
+        check(String.join("\n", lines), lines);
+        System.out.println("DumpTokenizerTest passed");
+    }
+
+    private static void check(String dump, List<String> lines) throws IOException {
+        byte[] bytes = dump.getBytes(StandardCharsets.UTF_8);
+        File file = File.createTempFile("dump", ".txt");
+        try {
+            Files.write(file.toPath(), bytes);
+            SymbolTable symbols = new SymbolTable();
+            check(new DumpTokenizer(Query.VPT, file, symbols, WINDOW_SIZE),
+                    symbols, lines);
+            check(new DumpTokenizer(Query.VPT, new ByteArrayInputStream(bytes),
+                    symbols), symbols, lines);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void check(DumpTokenizer tokenizer, SymbolTable symbols,
+                              List<String> lines) {
+        for (String line : lines) {
+            String[] expected = line.trim().split(", ");
+            if (!tokenizer.hasNext()) {
+                throw new RuntimeException("Missing line " + quote(line));
+            }
+            int[] tuple = tokenizer.next();
+            String[] actual = new String[tuple.length];
+            for (int i = 0; i < tuple.length; ++i) {
+                actual[i] = symbols.text(tuple[i]);
+            }
+            if (!Arrays.equals(expected, actual)) {
+                throw new RuntimeException("Line " + quote(line) +
+                        " is split into " + quote(Arrays.toString(actual)) +
+                        ", but " + quote(Arrays.toString(expected)) +
+                        " is expected");
+            }
+        }
+        if (tokenizer.hasNext()) {
+            throw new RuntimeException("More lines than written");
+        }
+        if (tokenizer.nrLines() != lines.size()) {
+            throw new RuntimeException(tokenizer.nrLines() + " lines are " +
+                    "counted, but " + lines.size() + " are written");
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\r", "\\r").replace("\t", "\\t") + "\"";
+    }
+}
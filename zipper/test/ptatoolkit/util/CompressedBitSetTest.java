@@ -0,0 +1,96 @@
+package ptatoolkit.util;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * Checks CompressedBitSet against java.util.BitSet by random operations
+ * on sets whose elements are spread over many sparse chunks, or packed
+ * into a few dense chunks, or both.
+ */
+public class CompressedBitSetTest {
+
+    private static final int NR_SETS = 8;
+
+    public static void main(String[] args) {
+        Random random = new Random(2018);
+        for (int round = 0; round < 20; ++round) {
+            // the ranges of sparse chunks, dense chunks, and both
+            check(random, 1 << 24, 2000);
+            check(random, 3 << 16, 40000);
+            check(random, 1 << 20, 30000);
+        }
+        System.out.println("CompressedBitSetTest passed");
+    }
+
+    private static void check(Random random, int range, int nrOps) {
+        CompressedBitSet[] sets = new CompressedBitSet[NR_SETS];
+        BitSet[] expected = new BitSet[NR_SETS];
+        for (int i = 0; i < NR_SETS; ++i) {
+            sets[i] = new CompressedBitSet();
+            if (i % 2 == 0) {
+                sets[i].trim(); // grows from no capacity
+            }
+            expected[i] = new BitSet();
+        }
+        for (int op = 0; op < nrOps; ++op) {
+            int i = random.nextInt(NR_SETS);
+            int j = random.nextInt(NR_SETS);
+            int x = random.nextInt(range);
+            int kind = random.nextInt(100);
+            if (kind < 85) {
+                boolean added = !expected[i].get(x);
+                expected[i].set(x);
+                assertEquals(added, sets[i].add(x), "add");
+            } else if (kind < 92) {
+                assertEquals(expected[i].get(x), sets[i].contains(x), "contains");
+            } else if (kind < 96) {
+                assertEquals(expected[i].intersects(expected[j]),
+                        sets[i].intersects(sets[j]), "intersects");
+            } else if (kind < 98) {
+                expected[i].or(expected[j]);
+                sets[i].or(sets[j]);
+            } else {
+                sets[i].trim();
+            }
+        }
+        for (int i = 0; i < NR_SETS; ++i) {
+            checkSame(expected[i], sets[i]);
+            // a copy built in another way is equal to the set
+            CompressedBitSet copy = new CompressedBitSet();
+            for (int x = expected[i].nextSetBit(0); x >= 0;
+                 x = expected[i].nextSetBit(x + 1)) {
+                copy.add(x);
+            }
+            copy.trim();
+            assertEquals(true, sets[i].equals(copy), "equals");
+            assertEquals(true, sets[i].hashCode() == copy.hashCode(), "hashCode");
+            for (int j = 0; j < NR_SETS; ++j) {
+                assertEquals(expected[i].equals(expected[j]),
+                        sets[i].equals(sets[j]), "equals");
+                assertEquals(expected[i].intersects(expected[j]),
+                        sets[i].intersects(sets[j]), "intersects");
+            }
+        }
+    }
+
+    private static void checkSame(BitSet expected, CompressedBitSet set) {
+        assertEquals(expected.cardinality(), set.cardinality(), "cardinality");
+        assertEquals(expected.isEmpty(), set.isEmpty(), "isEmpty");
+        PrimitiveIterator.OfInt itr = set.iterator();
+        for (int x = expected.nextSetBit(0); x >= 0; x = expected.nextSetBit(x + 1)) {
+            assertEquals(true, itr.hasNext(), "iterator");
+            assertEquals(x, itr.nextInt(), "iterator");
+            assertEquals(true, set.contains(x), "contains");
+        }
+        assertEquals(false, itr.hasNext(), "iterator");
+    }
+
+    private static void assertEquals(Object expected, Object actual, String op) {
+        if (!expected.equals(actual)) {
+            throw new RuntimeException(op + " gives " + actual +
+                    ", but " + expected + " is expected");
+        }
+    }
+}
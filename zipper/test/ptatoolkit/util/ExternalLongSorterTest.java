@@ -0,0 +1,47 @@
+package ptatoolkit.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that ExternalLongSorter sorts the added longs whether they fit
+ * in the buffer, spill to a few runs, or spill to so many runs that they
+ * are merged in several passes.
+ */
+public class ExternalLongSorterTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(2018);
+        // the smallest budget holds 1024 longs, and merges two runs at once
+        for (long budget : new long[] { 8 * 1024, 64 * 1024 }) {
+            for (int n : new int[] { 0, 1000, 5000, 200000 }) {
+                check(random, budget, n);
+            }
+        }
+        System.out.println("ExternalLongSorterTest passed");
+    }
+
+    private static void check(Random random, long budget, int n) {
+        long[] expected = new long[n];
+        long[] actual = new long[n];
+        int[] size = { 0 };
+        try (ExternalLongSorter sorter = new ExternalLongSorter(budget)) {
+            for (int i = 0; i < n; ++i) {
+                // many duplicates, as in the points-to pairs
+                expected[i] = random.nextInt(n / 2 + 1);
+                sorter.add(expected[i]);
+            }
+            sorter.forEachSorted(x -> {
+                if (size[0] == n) {
+                    throw new RuntimeException("More longs than added");
+                }
+                actual[size[0]++] = x;
+            });
+        }
+        Arrays.sort(expected);
+        if (size[0] != n || !Arrays.equals(expected, actual)) {
+            throw new RuntimeException("Sorting " + n + " longs within " +
+                    budget + " bytes gives wrong results");
+        }
+    }
+}
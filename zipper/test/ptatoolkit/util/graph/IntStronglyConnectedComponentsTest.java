@@ -0,0 +1,130 @@
+package ptatoolkit.util.graph;
+
+import ptatoolkit.util.IntStack;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that the parallel decomposition of IntStronglyConnectedComponents
+ * finds the same components as Tarjan's algorithm on random graphs which
+ * are large enough to be decomposed in parallel, and which have large
+ * cycles as well as many trivial components.
+ */
+public class IntStronglyConnectedComponentsTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(2018);
+        for (int i = 0; i < 40; ++i) {
+            int nrNodes = 5000 + random.nextInt(45000);
+            check(random, nrNodes);
+        }
+        System.out.println("IntStronglyConnectedComponentsTest passed");
+    }
+
+    private static void check(Random random, int nrNodes) {
+        IntStack[] succLists = new IntStack[nrNodes];
+        for (int v = 0; v < nrNodes; ++v) {
+            succLists[v] = new IntStack();
+            // forward edges to nearby nodes, which form no cycles
+            for (int j = 0, n = random.nextInt(4); j < n; ++j) {
+                int succ = v + 1 + random.nextInt(100);
+                if (succ < nrNodes) {
+                    succLists[v].push(succ);
+                }
+            }
+            if (random.nextDouble() < 0.01) {
+                succLists[v].push(v); // self-loop
+            }
+            if (random.nextDouble() < 0.01) {
+                // backward edges, which form small cycles
+                succLists[v].push(Math.max(0, v - 1 - random.nextInt(20)));
+            }
+        }
+        // large cycles through random nodes
+        for (int k = 0, n = random.nextInt(4); k < n; ++k) {
+            int length = 1000 + random.nextInt(nrNodes / 2);
+            int first = random.nextInt(nrNodes);
+            int prev = first;
+            for (int j = 1; j < length; ++j) {
+                int next = random.nextInt(nrNodes);
+                succLists[prev].push(next);
+                prev = next;
+            }
+            succLists[prev].push(first);
+        }
+        IntStack offsetList = new IntStack(nrNodes + 1);
+        IntStack succList = new IntStack(nrNodes * 2);
+        for (int v = 0; v < nrNodes; ++v) {
+            offsetList.push(succList.size());
+            for (int succ : succLists[v].toArray()) {
+                succList.push(succ);
+            }
+        }
+        offsetList.push(succList.size());
+        int[] offsets = offsetList.toArray();
+        int[] succs = succList.toArray();
+
+        IntStronglyConnectedComponents sequential =
+                new IntStronglyConnectedComponents(nrNodes, offsets, succs, 1);
+        IntStronglyConnectedComponents parallel =
+                new IntStronglyConnectedComponents(nrNodes, offsets, succs, 8);
+        checkMembers(sequential, nrNodes);
+        checkMembers(parallel, nrNodes);
+        // the sequential components are in reverse topological order
+        for (int v = 0; v < nrNodes; ++v) {
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                if (sequential.componentOf(v) < sequential.componentOf(succs[e])) {
+                    throw new RuntimeException("Component of " + v +
+                            " is numbered before a component it reaches");
+                }
+            }
+        }
+        // the components are the same if they are mapped one to one
+        if (sequential.nrComponents() != parallel.nrComponents()) {
+            throw new RuntimeException("Tarjan's algorithm finds " +
+                    sequential.nrComponents() + " components, but " +
+                    "parallel decomposition finds " + parallel.nrComponents());
+        }
+        int[] seq2par = new int[sequential.nrComponents()];
+        Arrays.fill(seq2par, -1);
+        for (int v = 0; v < nrNodes; ++v) {
+            int s = sequential.componentOf(v);
+            int p = parallel.componentOf(v);
+            if (seq2par[s] == -1) {
+                seq2par[s] = p;
+            } else if (seq2par[s] != p) {
+                throw new RuntimeException("Parallel decomposition splits " +
+                        "the component of node " + v);
+            }
+            if (sequential.isTrueComponent(s) != parallel.isTrueComponent(p)) {
+                throw new RuntimeException("Component of node " + v +
+                        " is trivial by only one algorithm");
+            }
+        }
+    }
+
+    /**
+     * Checks that the members of each component are the nodes in it.
+     */
+    private static void checkMembers(IntStronglyConnectedComponents scc,
+                                     int nrNodes) {
+        int nrMembers = 0;
+        for (int c = 0; c < scc.nrComponents(); ++c) {
+            if (scc.memberStart(c) >= scc.memberEnd(c)) {
+                throw new RuntimeException("Component " + c + " is empty");
+            }
+            for (int i = scc.memberStart(c); i < scc.memberEnd(c); ++i) {
+                if (scc.componentOf(scc.memberAt(i)) != c) {
+                    throw new RuntimeException("Member " + scc.memberAt(i) +
+                            " is not in component " + c);
+                }
+                ++nrMembers;
+            }
+        }
+        if (nrMembers != nrNodes) {
+            throw new RuntimeException(nrMembers + " members of " +
+                    nrNodes + " nodes");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ptatoolkit.zipper.analysis;
+
+import ptatoolkit.Global;
+import ptatoolkit.Options;
+import ptatoolkit.bench.SyntheticDoop;
+import ptatoolkit.zipper.Main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks that an incremental run whose options differ from the previous
+ * run gives the same precision-critical methods as a fresh run, i.e.,
+ * the state saved with other options is not reused.
+ */
+public class IncrementalOptionsTest {
+
+    private static final String APP = "test";
+
+    public static void main(String[] args) throws IOException {
+        File dir = Files.createTempDirectory("zipper-test").toFile();
+        try {
+            File dumps = SyntheticDoop.generate(new File(dir, "dumps"), APP, 5, 2018);
+            File cache = copy(dumps, new File(dir, "incremental"));
+            List<String> previous = run(cache, new File(dir, "out"),
+                    "-incremental");
+            boolean changed = false;
+            for (String option : Arrays.asList("-no-wrapped-flow",
+                    "-no-unwrapped-flow", "-condense-ofg")) {
+                List<String> expected = run(copy(dumps, new File(dir, "fresh" + option)),
+                        new File(dir, "fresh-out" + option), option);
+                List<String> actual = run(cache, new File(dir, "out" + option),
+                        "-incremental", option);
+                if (!actual.equals(expected)) {
+                    throw new RuntimeException("Incremental run with " + option +
+                            " differs from fresh run: " + actual.size() +
+                            " vs. " + expected.size() + " methods");
+                }
+                changed |= !expected.equals(previous);
+            }
+            if (!changed) {
+                throw new RuntimeException("The options do not change " +
+                        "the results of the test program");
+            }
+            System.out.println("IncrementalOptionsTest passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Run Zipper on the dumps in cache with given options.
+     * @return the sorted precision-critical methods.
+     */
+    private static List<String> run(File cache, File out, String... options)
+            throws IOException {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "-pta", "ptatoolkit.zipper.doop.DoopPointsToAnalysis",
+                "-app", APP,
+                "-cache", cache.getPath(),
+                "-out", out.getPath()));
+        Collections.addAll(args, options);
+        Global.reset();
+        Main.run(Options.parse(args.toArray(new String[0])));
+        File[] results = out.listFiles((d, name) -> name.endsWith(".facts"));
+        if (results == null || results.length != 1) {
+            throw new RuntimeException("Expected one result file in " + out);
+        }
+        List<String> pcm = Files.readAllLines(results[0].toPath());
+        Collections.sort(pcm);
+        return pcm;
+    }
+
+    private static File copy(File dumps, File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        for (File file : dumps.listFiles()) {
+            Files.copy(file.toPath(), new File(dir, file.getName()).toPath());
+        }
+        return dir;
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        file.delete();
+    }
+}